@@ -0,0 +1,186 @@
+package com.autoflex.inventory.benchmark;
+
+import com.autoflex.inventory.application.production.BomSnapshot;
+import com.autoflex.inventory.application.production.BranchAndBoundPlanner;
+import com.autoflex.inventory.application.production.CapacityEvaluator;
+import com.autoflex.inventory.application.production.GreedyPlanner;
+import com.autoflex.inventory.application.production.IncrementalGreedyPlan;
+import com.autoflex.inventory.application.production.ProductionPlan;
+import com.autoflex.inventory.application.production.ProductionStrategy;
+import com.autoflex.inventory.application.production.RankedSuggestions;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.domain.Quantity;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.presentation.dto.ProductionPlanDTO;
+import com.autoflex.inventory.presentation.dto.ProductionSuggestionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/** Planning engine on synthetic catalogs, without Quarkus; run with {@code ./mvnw -Pbenchmark compile exec:exec}. */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProductionSuggestionBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  int products;
+
+  @Param({"1000"})
+  int materials;
+
+  @Param({"5"})
+  int materialsPerProduct;
+
+  @Param({"UNIFORM", "SCARCE", "SKEWED"})
+  SyntheticCatalog.StockDistribution stockDistribution;
+
+  @Param({"10"})
+  int topLimit;
+
+  private final GreedyPlanner greedyPlanner = new GreedyPlanner();
+  // The optimizer limits of application.properties
+  private final BranchAndBoundPlanner branchAndBoundPlanner = new BranchAndBoundPlanner(Duration.ofMillis(500), 1_000_000);
+  private final CapacityEvaluator parallelCapacityEvaluator = new CapacityEvaluator(ForkJoinPool.commonPool(), 0);
+  private BomSnapshot snapshot;
+  private ProductionPlan greedy;
+  private List<Product> entityProducts;
+  private List<RawMaterial> entityMaterials;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    snapshot = SyntheticCatalog.generate(products, materials, materialsPerProduct, stockDistribution, 42);
+    greedy = greedyPlanner.plan(snapshot);
+    entityMaterials = new ArrayList<>(snapshot.materialCount());
+    for (int m = 0; m < snapshot.materialCount(); m++) {
+      RawMaterial material = new RawMaterial();
+      material.id = snapshot.materialId(m);
+      material.stockQuantity = Quantity.toDouble(snapshot.stock(m));
+      entityMaterials.add(material);
+    }
+    entityProducts = new ArrayList<>(snapshot.productCount());
+    for (int p = 0; p < snapshot.productCount(); p++) {
+      Product product = new Product();
+      product.id = snapshot.productId(p);
+      product.name = snapshot.productName(p);
+      product.price = snapshot.price(p);
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        ProductMaterial formula = new ProductMaterial();
+        formula.product = product;
+        formula.rawMaterial = entityMaterials.get(snapshot.lineMaterial(line));
+        formula.requiredQuantity = Quantity.toDouble(snapshot.lineRequired(line));
+        product.materials.add(formula);
+      }
+      entityProducts.add(product);
+    }
+  }
+
+  /** The planner the engine replaced: doubles in a HashMap keyed by id, walking the loaded entity graph. */
+  @Benchmark
+  public List<ProductionSuggestionDTO> baselinePlan() {
+    Map<Long, Double> availableStock = new HashMap<>();
+    for (RawMaterial material : entityMaterials) {
+      availableStock.put(material.id, material.stockQuantity);
+    }
+
+    List<ProductionSuggestionDTO> suggestions = new ArrayList<>();
+    for (Product p : entityProducts) {
+      long maxUnitsForProduct = Long.MAX_VALUE;
+      if (p.materials.isEmpty()) continue;
+
+      for (ProductMaterial formula : p.materials) {
+        double inStock = availableStock.getOrDefault(formula.rawMaterial.id, 0.0);
+        double required = formula.requiredQuantity;
+        if (required > 0) {
+          maxUnitsForProduct = Math.min(maxUnitsForProduct, (long) Math.floor(inStock / required));
+        }
+      }
+
+      if (maxUnitsForProduct > 0) {
+        for (ProductMaterial formula : p.materials) {
+          availableStock.merge(formula.rawMaterial.id, -formula.requiredQuantity * maxUnitsForProduct, Double::sum);
+        }
+        suggestions.add(new ProductionSuggestionDTO(
+                p.name, (int) maxUnitsForProduct, p.price, p.price.multiply(BigDecimal.valueOf(maxUnitsForProduct))));
+      }
+    }
+    return suggestions;
+  }
+
+  @Benchmark
+  public ProductionPlan greedyPlan() {
+    return greedyPlanner.plan(snapshot);
+  }
+
+  /** Bounded by the optimizer's time budget on large catalogs, where the search does not complete. */
+  @Benchmark
+  public ProductionPlan branchAndBoundPlan() {
+    return branchAndBoundPlanner.solve(snapshot, greedy.units());
+  }
+
+  @Benchmark
+  public long[] capacity() {
+    return CapacityEvaluator.sequential().evaluate(snapshot);
+  }
+
+  @Benchmark
+  public long[] parallelCapacity() {
+    return parallelCapacityEvaluator.evaluate(snapshot);
+  }
+
+  @Benchmark
+  public IncrementalGreedyPlan incrementalCompute() {
+    return IncrementalGreedyPlan.compute(snapshot);
+  }
+
+  @Benchmark
+  public ProductionPlanDTO topSuggestions() {
+    return new RankedSuggestions(ProductionStrategy.GREEDY, snapshot, greedy).top(topLimit, 0);
+  }
+
+  /** One stock change repaired per invocation, each on a fresh plan so earlier repairs do not speed up later ones. */
+  @State(Scope.Thread)
+  public static class StockChange {
+    IncrementalGreedyPlan plan;
+    int material;
+    long stock;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Invocation)
+    public void setUp(ProductionSuggestionBenchmark benchmark) {
+      plan = IncrementalGreedyPlan.compute(benchmark.snapshot);
+      material = random.nextInt(benchmark.snapshot.materialCount());
+      stock = benchmark.snapshot.stock(material) / 2;
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int incrementalStockChange(StockChange change) {
+    return change.plan.applyStockChange(change.material, change.stock);
+  }
+}
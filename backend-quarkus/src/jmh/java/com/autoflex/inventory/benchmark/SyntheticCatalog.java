@@ -0,0 +1,73 @@
+package com.autoflex.inventory.benchmark;
+
+import com.autoflex.inventory.application.production.BomSnapshot;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+/** Deterministic bills of materials, products added by descending price as the service hands them to the planners. */
+final class SyntheticCatalog {
+
+  enum StockDistribution {
+    /** Stock worth a few units of every product using the material. */
+    UNIFORM,
+    /** Stock below a single unit for most products using the material, so many products are blocked. */
+    SCARCE,
+    /** Stock thousands of times the requirements, so the first products using a material take large batches. */
+    ABUNDANT,
+    /** Stock follows a power law: a few materials are plentiful, the long tail is nearly empty. */
+    SKEWED
+  }
+
+  private SyntheticCatalog() {
+  }
+
+  static BomSnapshot generate(int products, int materials, int materialsPerProduct,
+                              StockDistribution distribution, long seed) {
+    if (materialsPerProduct > materials) {
+      throw new IllegalArgumentException("materialsPerProduct cannot exceed materials");
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    BomSnapshot.Builder builder = BomSnapshot.builder();
+
+    // Average number of products drawing on each material, used to scale stock to the catalog size
+    double usage = (double) products * materialsPerProduct / materials;
+    for (int m = 0; m < materials; m++) {
+      builder.addMaterial(m + 1, stock(distribution, usage, m, random));
+    }
+
+    long priceCents = products * 100L + 1_000;
+    int[] picked = new int[materialsPerProduct];
+    for (int p = 0; p < products; p++) {
+      priceCents -= random.nextInt(0, 200);
+      builder.addProduct(p + 1, "Product " + (p + 1), BigDecimal.valueOf(Math.max(priceCents, 1), 2));
+
+      for (int i = 0; i < materialsPerProduct; i++) {
+        int material = nextDistinct(random, materials, picked, i);
+        picked[i] = material;
+        builder.addLine(material + 1, random.nextLong(1, 1_001));
+      }
+    }
+    return builder.build();
+  }
+
+  private static long stock(StockDistribution distribution, double usage, int material, SplittableRandom random) {
+    return switch (distribution) {
+      case UNIFORM -> (long) (usage * random.nextLong(1_000, 3_000));
+      case SCARCE -> (long) (usage * 0.1 * random.nextLong(100, 1_000));
+      case ABUNDANT -> (long) (usage * 1_000_000);
+      case SKEWED -> (long) (usage * 5_000 / Math.pow(material + 1, 1.2));
+    };
+  }
+
+  private static int nextDistinct(SplittableRandom random, int bound, int[] picked, int count) {
+    while (true) {
+      int candidate = random.nextInt(bound);
+      boolean duplicate = false;
+      for (int i = 0; i < count && !duplicate; i++) {
+        duplicate = picked[i] == candidate;
+      }
+      if (!duplicate) return candidate;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.autoflex.inventory.application.cache;
+
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.presentation.dto.CacheRegionStatsDTO;
+import com.autoflex.inventory.presentation.dto.SecondLevelCacheStatsDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Catalog cache regions; evicts formula lines Hibernate cannot see change, such as a deleted material's lines. */
+@ApplicationScoped
+public class CatalogCacheRegions {
+
+  public static final String RAW_MATERIALS = RawMaterial.class.getName();
+  public static final String PRODUCTS = Product.class.getName();
+  public static final String PRODUCT_MATERIALS = ProductMaterial.class.getName();
+  public static final String PRODUCT_FORMULAS = Product.class.getName() + ".materials";
+  public static final String QUERY_RESULTS = "default-query-results-region";
+
+  private static final List<String> DOMAIN_REGIONS = List.of(RAW_MATERIALS, PRODUCTS, PRODUCT_MATERIALS, PRODUCT_FORMULAS);
+
+  @Inject
+  SessionFactory sessionFactory;
+
+  /** For rows written behind Hibernate's back, e.g. through plain JDBC. */
+  public void evictAll() {
+    sessionFactory.getCache().evictAllRegions();
+  }
+
+  public SecondLevelCacheStatsDTO stats() {
+    Statistics statistics = sessionFactory.getStatistics();
+    List<CacheRegionStatsDTO> regions = new ArrayList<>();
+    for (String region : DOMAIN_REGIONS) {
+      regions.add(toDto(region, statistics.getDomainDataRegionStatistics(region)));
+    }
+    regions.add(toDto(QUERY_RESULTS, statistics.getQueryRegionStatistics(QUERY_RESULTS)));
+    return new SecondLevelCacheStatsDTO(
+            statistics.isStatisticsEnabled(),
+            statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount(),
+            statistics.getSecondLevelCachePutCount(),
+            statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(),
+            statistics.getQueryCachePutCount(),
+            regions
+    );
+  }
+
+  void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+    Cache cache = sessionFactory.getCache();
+    switch (event.type()) {
+      case FORMULA -> {
+        if (event.id() == null) {
+          cache.evictCollectionData(PRODUCT_FORMULAS);
+        } else {
+          cache.evictCollectionData(PRODUCT_FORMULAS, event.id());
+        }
+      }
+      default -> {
+      }
+    }
+  }
+
+  private static CacheRegionStatsDTO toDto(String region, CacheRegionStatistics statistics) {
+    if (statistics == null) return new CacheRegionStatsDTO(region, 0, 0, 0, 0);
+    return new CacheRegionStatsDTO(
+            region,
+            statistics.getHitCount(),
+            statistics.getMissCount(),
+            statistics.getPutCount(),
+            statistics.getElementCountInMemory()
+    );
+  }
+}
@@ -0,0 +1,68 @@
+package com.autoflex.inventory.application.cache;
+
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.domain.CatalogVersion;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Version of the whole catalog, bumped in each writing transaction and kept in memory only once that commits. */
+@ApplicationScoped
+public class CatalogVersionTracker {
+
+  private final AtomicReference<CatalogVersion.Stamp> current = new AtomicReference<>();
+
+  @Inject
+  TransactionSynchronizationRegistry transactions;
+
+  public CatalogVersion.Stamp current() {
+    CatalogVersion.Stamp stamp = current.get();
+    return stamp != null ? stamp : refresh();
+  }
+
+  @Scheduled(every = "{catalog.version.refresh.every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void refreshPeriodically() {
+    CatalogVersion.Stamp stamp = refresh();
+    Log.tracef("Catalog version refreshed, now %d", stamp.version());
+  }
+
+  public CatalogVersion.Stamp refresh() {
+    return publish(QuarkusTransaction.requiringNew().call(CatalogVersion::current));
+  }
+
+  // The row lock is taken after the writer's own rows and held to its commit, so writers queue on it but never deadlock
+  void onCatalogChanged(@Observes CatalogChangedEvent event) {
+    if (transactions.getTransactionStatus() == Status.STATUS_NO_TRANSACTION) {
+      publish(QuarkusTransaction.requiringNew().call(() -> CatalogVersion.bump(Instant.now())));
+      return;
+    }
+    if (transactions.getResource(CatalogVersionTracker.class) != null) return;
+
+    CatalogVersion.Stamp stamp = CatalogVersion.bump(Instant.now());
+    transactions.putResource(CatalogVersionTracker.class, stamp);
+    transactions.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) publish(stamp);
+      }
+    });
+  }
+
+  // Commits and refreshes may arrive out of order, so an older version never replaces a newer one
+  private CatalogVersion.Stamp publish(CatalogVersion.Stamp stamp) {
+    return current.accumulateAndGet(stamp, (known, seen) -> known == null || seen.version() > known.version() ? seen : known);
+  }
+}
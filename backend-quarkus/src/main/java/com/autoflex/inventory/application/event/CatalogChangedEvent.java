@@ -0,0 +1,24 @@
+package com.autoflex.inventory.application.event;
+
+public record CatalogChangedEvent(
+        Type type,
+        Long id,
+        Double availableQuantity,
+        Long version
+) {
+  public CatalogChangedEvent(Type type, Long id) {
+    this(type, id, null, null);
+  }
+
+  // The version orders stock changes of one material by commit, as each is written under the row lock
+  public static CatalogChangedEvent stock(Long materialId, Double availableQuantity, Long version) {
+    return new CatalogChangedEvent(Type.STOCK, materialId, availableQuantity, version);
+  }
+
+  public enum Type {
+    RAW_MATERIAL,
+    STOCK,
+    PRODUCT,
+    FORMULA
+  }
+}
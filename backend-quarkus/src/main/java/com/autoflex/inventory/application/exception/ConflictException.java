@@ -0,0 +1,12 @@
+package com.autoflex.inventory.application.exception;
+
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.Response;
+
+/** The request is valid but cannot be applied to the current state of the resource. */
+public class ConflictException extends ClientErrorException {
+
+  public ConflictException(String message) {
+    super(message, Response.Status.CONFLICT);
+  }
+}
@@ -0,0 +1,23 @@
+package com.autoflex.inventory.application.exception;
+
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.Response;
+
+import java.util.Set;
+
+/** The request was conditional on a version of the resource that is no longer current. */
+public class PreconditionFailedException extends ClientErrorException {
+
+  public PreconditionFailedException(String message) {
+    super(message, Response.Status.PRECONDITION_FAILED);
+  }
+
+  /** Fails unless the expected version, when the caller gave one, is the current one. */
+  public static void requireVersion(String resource, Set<Long> expected, Long current) {
+    if (expected != null && (current == null || !expected.contains(current))) {
+      throw new PreconditionFailedException(current == null
+              ? resource + " no longer exists"
+              : resource + " has changed, its current version is " + current);
+    }
+  }
+}
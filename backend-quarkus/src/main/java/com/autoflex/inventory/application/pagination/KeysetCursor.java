@@ -0,0 +1,39 @@
+package com.autoflex.inventory.application.pagination;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/** Sort key of the last row of a page, handed to clients as an opaque URL-safe token. */
+public record KeysetCursor(BigDecimal price, long id) {
+
+  public static KeysetCursor afterId(long id) {
+    return new KeysetCursor(null, id);
+  }
+
+  public static KeysetCursor afterPriceAndId(BigDecimal price, long id) {
+    return new KeysetCursor(price, id);
+  }
+
+  public String encode() {
+    String raw = price == null ? Long.toString(id) : price.toPlainString() + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static KeysetCursor decode(String token, boolean withPrice) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(':');
+      if (withPrice != (separator >= 0)) {
+        throw new IllegalArgumentException("Cursor does not match the listing");
+      }
+      return withPrice
+              ? new KeysetCursor(new BigDecimal(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)))
+              : new KeysetCursor(null, Long.parseLong(raw));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid page cursor");
+    }
+  }
+}
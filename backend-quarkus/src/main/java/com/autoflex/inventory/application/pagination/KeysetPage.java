@@ -0,0 +1,9 @@
+package com.autoflex.inventory.application.pagination;
+
+import java.util.List;
+
+public record KeysetPage<T>(
+        List<T> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,149 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Quantity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Flattens multi-level bills of materials into raw-material hundredths, rounding nested quantities up. */
+public final class BomExplosion {
+
+  private final Map<Long, List<Line>> materials;
+  private final Map<Long, List<Line>> components;
+  private final Map<Long, Requirement> exploded = new HashMap<>();
+
+  private BomExplosion(Builder builder) {
+    this.materials = builder.materials;
+    this.components = builder.components;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public boolean hasComponents(long productId) {
+    return components.containsKey(productId);
+  }
+
+  public Requirement explode(long productId) {
+    Requirement requirement = exploded.get(productId);
+    if (requirement != null) return requirement;
+
+    // Iterative post-order walk, so the depth of the tree is not bounded by the thread stack
+    Deque<Long> stack = new ArrayDeque<>();
+    Set<Long> visiting = new HashSet<>();
+    stack.push(productId);
+    while (!stack.isEmpty()) {
+      long current = stack.peek();
+      if (exploded.containsKey(current)) {
+        stack.pop();
+        continue;
+      }
+
+      if (visiting.add(current)) {
+        for (Line component : components.getOrDefault(current, List.of())) {
+          if (visiting.contains(component.id()) && !exploded.containsKey(component.id())) {
+            throw new CycleException(current);
+          }
+          if (!exploded.containsKey(component.id())) {
+            stack.push(component.id());
+          }
+        }
+        continue;
+      }
+
+      stack.pop();
+      exploded.put(current, combine(current));
+    }
+    return exploded.get(productId);
+  }
+
+  private Requirement combine(long productId) {
+    Map<Long, Long> total = new LinkedHashMap<>();
+    for (Line line : materials.getOrDefault(productId, List.of())) {
+      total.merge(line.id(), line.quantity(), Math::addExact);
+    }
+    for (Line component : components.getOrDefault(productId, List.of())) {
+      Requirement requirement = exploded.get(component.id());
+      for (int i = 0; i < requirement.size(); i++) {
+        total.merge(requirement.materialId(i), Quantity.multiply(requirement.quantity(i), component.quantity()), Math::addExact);
+      }
+    }
+
+    long[] materialIds = new long[total.size()];
+    long[] quantities = new long[total.size()];
+    int i = 0;
+    for (Map.Entry<Long, Long> entry : total.entrySet()) {
+      materialIds[i] = entry.getKey();
+      quantities[i] = entry.getValue();
+      i++;
+    }
+    return new Requirement(materialIds, quantities);
+  }
+
+  public record Requirement(long[] materialIds, long[] quantities) {
+
+    public int size() {
+      return materialIds.length;
+    }
+
+    public long materialId(int index) {
+      return materialIds[index];
+    }
+
+    public long quantity(int index) {
+      return quantities[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Requirement other
+              && Arrays.equals(materialIds, other.materialIds)
+              && Arrays.equals(quantities, other.quantities);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Arrays.hashCode(materialIds) + Arrays.hashCode(quantities);
+    }
+  }
+
+  private record Line(long id, long quantity) {
+  }
+
+  public static final class CycleException extends IllegalStateException {
+    private CycleException(long productId) {
+      super("Bill of materials of product " + productId + " contains a cycle");
+    }
+  }
+
+  public static final class Builder {
+    private final Map<Long, List<Line>> materials = new HashMap<>();
+    private final Map<Long, List<Line>> components = new HashMap<>();
+
+    private Builder() {
+    }
+
+    public Builder addMaterial(long productId, long materialId, long requiredHundredths) {
+      materials.computeIfAbsent(productId, id -> new ArrayList<>()).add(new Line(materialId, requiredHundredths));
+      return this;
+    }
+
+    public Builder addComponent(long assemblyId, long componentId, long requiredHundredths) {
+      components.computeIfAbsent(assemblyId, id -> new ArrayList<>()).add(new Line(componentId, requiredHundredths));
+      return this;
+    }
+
+    public BomExplosion build() {
+      return new BomExplosion(this);
+    }
+  }
+}
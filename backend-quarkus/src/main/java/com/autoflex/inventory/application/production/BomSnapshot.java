@@ -0,0 +1,244 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Immutable CSR view of the bill of materials in hundredths, products in the greedy allocation order. */
+public final class BomSnapshot {
+
+  private final long[] materialIds;
+  private final long[] stock;
+  private final Map<Long, Integer> materialOrdinals;
+  private final long[] productIds;
+  private final String[] productNames;
+  private final BigDecimal[] prices;
+  private final long[] priceCents;
+  private final int[] rowStart;
+  private final int[] lineMaterial;
+  private final long[] lineRequired;
+  private final int[] columnStart;
+  private final int[] columnProduct;
+  private final int[] columnLine;
+
+  private BomSnapshot(Builder builder) {
+    this.materialIds = Arrays.copyOf(builder.materialIds, builder.materialCount);
+    this.stock = Arrays.copyOf(builder.stock, builder.materialCount);
+    this.materialOrdinals = Map.copyOf(builder.materialOrdinals);
+
+    int productCount = builder.productIds.size();
+    this.productIds = new long[productCount];
+    this.productNames = builder.productNames.toArray(new String[0]);
+    this.prices = builder.prices.toArray(new BigDecimal[0]);
+    this.priceCents = new long[productCount];
+    for (int p = 0; p < productCount; p++) {
+      productIds[p] = builder.productIds.get(p);
+      priceCents[p] = Money.toCents(prices[p]);
+    }
+
+    this.rowStart = Arrays.copyOf(builder.rowStart, productCount + 1);
+    this.rowStart[productCount] = builder.lineCount;
+    this.lineMaterial = Arrays.copyOf(builder.lineMaterial, builder.lineCount);
+    this.lineRequired = Arrays.copyOf(builder.lineRequired, builder.lineCount);
+
+    this.columnStart = new int[materialIds.length + 1];
+    this.columnProduct = new int[lineMaterial.length];
+    this.columnLine = new int[lineMaterial.length];
+    for (int material : lineMaterial) {
+      columnStart[material + 1]++;
+    }
+    for (int m = 0; m < materialIds.length; m++) {
+      columnStart[m + 1] += columnStart[m];
+    }
+    int[] next = Arrays.copyOf(columnStart, materialIds.length);
+    for (int p = 0; p < productCount; p++) {
+      for (int line = rowStart[p]; line < rowStart[p + 1]; line++) {
+        int position = next[lineMaterial[line]]++;
+        columnProduct[position] = p;
+        columnLine[position] = line;
+      }
+    }
+  }
+
+  private BomSnapshot(BomSnapshot source, long[] stock) {
+    this.materialIds = source.materialIds;
+    this.stock = stock;
+    this.materialOrdinals = source.materialOrdinals;
+    this.productIds = source.productIds;
+    this.productNames = source.productNames;
+    this.prices = source.prices;
+    this.priceCents = source.priceCents;
+    this.rowStart = source.rowStart;
+    this.lineMaterial = source.lineMaterial;
+    this.lineRequired = source.lineRequired;
+    this.columnStart = source.columnStart;
+    this.columnProduct = source.columnProduct;
+    this.columnLine = source.columnLine;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int productCount() {
+    return productIds.length;
+  }
+
+  public int materialCount() {
+    return materialIds.length;
+  }
+
+  public int lineCount() {
+    return lineMaterial.length;
+  }
+
+  public long productId(int product) {
+    return productIds[product];
+  }
+
+  public String productName(int product) {
+    return productNames[product];
+  }
+
+  public BigDecimal price(int product) {
+    return prices[product];
+  }
+
+  public long priceCents(int product) {
+    return priceCents[product];
+  }
+
+  public int rowStart(int product) {
+    return rowStart[product];
+  }
+
+  public int rowEnd(int product) {
+    return rowStart[product + 1];
+  }
+
+  public int lineMaterial(int line) {
+    return lineMaterial[line];
+  }
+
+  public long lineRequired(int line) {
+    return lineRequired[line];
+  }
+
+  public int columnStart(int material) {
+    return columnStart[material];
+  }
+
+  public int columnEnd(int material) {
+    return columnStart[material + 1];
+  }
+
+  public int columnProduct(int position) {
+    return columnProduct[position];
+  }
+
+  public int columnLine(int position) {
+    return columnLine[position];
+  }
+
+  public long materialId(int material) {
+    return materialIds[material];
+  }
+
+  public int materialOrdinal(long materialId) {
+    Integer ordinal = materialOrdinals.get(materialId);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  public long stock(int material) {
+    return stock[material];
+  }
+
+  public long[] stockCopy() {
+    return stock.clone();
+  }
+
+  public BomSnapshot withStock(int material, long stockHundredths) {
+    long[] updated = stock.clone();
+    updated[material] = stockHundredths;
+    return new BomSnapshot(this, updated);
+  }
+
+  public BomSnapshot withStock(long[] stockQuantities) {
+    if (stockQuantities.length != stock.length) {
+      throw new IllegalArgumentException("Expected stock for " + stock.length + " raw materials");
+    }
+    return new BomSnapshot(this, stockQuantities.clone());
+  }
+
+  public static final class Builder {
+    private long[] materialIds = new long[16];
+    private long[] stock = new long[16];
+    private int materialCount;
+    private final Map<Long, Integer> materialOrdinals = new HashMap<>();
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<String> productNames = new ArrayList<>();
+    private final List<BigDecimal> prices = new ArrayList<>();
+    private int[] rowStart = new int[16];
+
+    private int[] lineMaterial = new int[64];
+    private long[] lineRequired = new long[64];
+    private int lineCount;
+
+    private Builder() {
+    }
+
+    public Builder addMaterial(long id, long stockHundredths) {
+      if (materialOrdinals.putIfAbsent(id, materialCount) != null) {
+        throw new IllegalArgumentException("Duplicate raw material " + id);
+      }
+      if (materialCount == materialIds.length) {
+        materialIds = Arrays.copyOf(materialIds, materialCount * 2);
+        stock = Arrays.copyOf(stock, materialCount * 2);
+      }
+      materialIds[materialCount] = id;
+      stock[materialCount] = stockHundredths;
+      materialCount++;
+      return this;
+    }
+
+    public Builder addProduct(long id, String name, BigDecimal price) {
+      int product = productIds.size();
+      if (product + 1 >= rowStart.length) {
+        rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+      }
+      rowStart[product] = lineCount;
+      productIds.add(id);
+      productNames.add(name);
+      prices.add(price);
+      return this;
+    }
+
+    public Builder addLine(long materialId, long requiredHundredths) {
+      if (productIds.isEmpty()) {
+        throw new IllegalStateException("addProduct must be called before addLine");
+      }
+      Integer ordinal = materialOrdinals.get(materialId);
+      if (ordinal == null) {
+        throw new IllegalArgumentException("Unknown raw material " + materialId);
+      }
+      if (lineCount == lineMaterial.length) {
+        lineMaterial = Arrays.copyOf(lineMaterial, lineCount * 2);
+        lineRequired = Arrays.copyOf(lineRequired, lineCount * 2);
+      }
+      lineMaterial[lineCount] = ordinal;
+      lineRequired[lineCount] = requiredHundredths;
+      lineCount++;
+      return this;
+    }
+
+    public BomSnapshot build() {
+      return new BomSnapshot(this);
+    }
+  }
+}
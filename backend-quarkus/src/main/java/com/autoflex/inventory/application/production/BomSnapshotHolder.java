@@ -0,0 +1,170 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductComponent;
+import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.domain.Quantity;
+import com.autoflex.inventory.domain.RawMaterial;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@ApplicationScoped
+public class BomSnapshotHolder {
+
+  @ConfigProperty(name = "production.parallel.threshold", defaultValue = "20000")
+  int parallelThreshold;
+
+  @ConfigProperty(name = "production.parallel.parallelism", defaultValue = "0")
+  int parallelism;
+
+  @Inject
+  TransactionSynchronizationRegistry transactions;
+
+  private final AtomicReference<Entry> current = new AtomicReference<>();
+  private final AtomicLong generation = new AtomicLong();
+  private ForkJoinPool pool;
+  private CapacityEvaluator capacityEvaluator;
+  private ScenarioSimulator scenarioSimulator;
+
+  @PostConstruct
+  void init() {
+    pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+    capacityEvaluator = new CapacityEvaluator(pool, parallelThreshold);
+    scenarioSimulator = new ScenarioSimulator(pool);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (pool != ForkJoinPool.commonPool()) {
+      pool.shutdown();
+    }
+  }
+
+  /** Inside a transaction the plan is rebuilt from what that transaction sees on every call and never cached. */
+  public PlanningState current() {
+    if (transactions.getTransactionStatus() != Status.STATUS_NO_TRANSACTION) {
+      return IncrementalGreedyPlan.compute(load().snapshot(), capacityEvaluator).state();
+    }
+
+    long observedGeneration = generation.get();
+    Entry entry = current.get();
+    if (entry != null && entry.generation() == observedGeneration) {
+      return entry.plan().state();
+    }
+    return swap(observedGeneration).state();
+  }
+
+  public ScenarioSimulator simulator() {
+    return scenarioSimulator;
+  }
+
+  public PlanningState rebuild() {
+    return swap(generation.incrementAndGet()).state();
+  }
+
+  public void invalidate() {
+    generation.incrementAndGet();
+    current.set(null);
+  }
+
+  void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_COMPLETION) CatalogChangedEvent event) {
+    if (event.type() != CatalogChangedEvent.Type.STOCK) {
+      invalidate();
+    }
+  }
+
+  synchronized void onStockChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+    if (event.type() != CatalogChangedEvent.Type.STOCK) return;
+
+    Entry entry = current.get();
+    int material = entry == null ? -1 : entry.plan().snapshot().materialOrdinal(event.id());
+    // Observers of concurrent commits can run out of commit order; the plan may already hold this stock or a later one
+    if (material >= 0 && entry.generation() == generation.get()
+            && event.version() != null && event.version() <= entry.materialVersions()[material]) {
+      Log.debugf("Stale stock change of raw material %d at version %d ignored", event.id().longValue(), event.version().longValue());
+      return;
+    }
+
+    long next = generation.incrementAndGet();
+    if (entry == null || entry.generation() != next - 1 || material < 0) {
+      current.set(null);
+      return;
+    }
+
+    int evaluated = entry.plan().applyStockChange(material, Quantity.toHundredths(event.availableQuantity()));
+    if (event.version() != null) {
+      entry.materialVersions()[material] = event.version();
+    }
+    current.set(new Entry(next, entry.plan(), entry.materialVersions()));
+    Log.debugf("Stock of raw material %d changed, re-evaluated %d products", event.id().longValue(), (long) evaluated);
+  }
+
+  private IncrementalGreedyPlan swap(long observedGeneration) {
+    Loaded loaded = QuarkusTransaction.requiringNew().call(BomSnapshotHolder::load);
+    IncrementalGreedyPlan plan = IncrementalGreedyPlan.compute(loaded.snapshot(), capacityEvaluator);
+    current.set(new Entry(observedGeneration, plan, loaded.materialVersions()));
+    return plan;
+  }
+
+  private static Loaded load() {
+    List<Product> products = Product.listAllWithMaterials();
+    List<RawMaterial> materials = RawMaterial.listAll();
+
+    BomExplosion.Builder explosionBuilder = BomExplosion.builder();
+    for (Product product : products) {
+      for (ProductMaterial formula : product.materials) {
+        explosionBuilder.addMaterial(product.id, formula.rawMaterial.id, Quantity.toHundredths(formula.requiredQuantity));
+      }
+    }
+    for (ProductComponent component : ProductComponent.listAllComponents()) {
+      explosionBuilder.addComponent(component.id.assemblyId, component.id.componentId, Quantity.toHundredths(component.requiredQuantity));
+    }
+    BomExplosion explosion = explosionBuilder.build();
+
+    BomSnapshot.Builder builder = BomSnapshot.builder();
+    // Snapshot ordinals follow the order materials are added in
+    long[] materialVersions = new long[materials.size()];
+    for (int m = 0; m < materials.size(); m++) {
+      RawMaterial material = materials.get(m);
+      materialVersions[m] = material.version;
+      builder.addMaterial(material.id, Quantity.toHundredths(material.availableQuantity()));
+    }
+    for (Product product : products) {
+      BomExplosion.Requirement requirement;
+      try {
+        requirement = explosion.explode(product.id);
+      } catch (BomExplosion.CycleException e) {
+        // Left out of the plan rather than failing it for every other product
+        Log.warnf("%s, product left out of production planning", e.getMessage());
+        continue;
+      }
+      builder.addProduct(product.id, product.name, product.price);
+      for (int i = 0; i < requirement.size(); i++) {
+        builder.addLine(requirement.materialId(i), requirement.quantity(i));
+      }
+    }
+    return new Loaded(builder.build(), materialVersions);
+  }
+
+  // Material versions are indexed by snapshot ordinal and only touched under the holder's lock
+  private record Entry(long generation, IncrementalGreedyPlan plan, long[] materialVersions) {
+  }
+
+  private record Loaded(BomSnapshot snapshot, long[] materialVersions) {
+  }
+}
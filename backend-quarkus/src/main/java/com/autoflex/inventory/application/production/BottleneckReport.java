@@ -0,0 +1,42 @@
+package com.autoflex.inventory.application.production;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/** Ranks materials by the value of the next units they keep the greedy plan from building. */
+public final class BottleneckReport {
+
+  private BottleneckReport() {
+  }
+
+  public static List<MaterialBottleneck> rank(PlanningState state) {
+    BomSnapshot snapshot = state.snapshot();
+    int[] products = new int[snapshot.materialCount()];
+    long[] blockedCents = new long[snapshot.materialCount()];
+    long[] shortfall = new long[snapshot.materialCount()];
+
+    for (int p = 0; p < snapshot.productCount(); p++) {
+      int material = state.limitingMaterial(p);
+      if (material == PlanningState.NO_LIMIT) continue;
+
+      products[material]++;
+      blockedCents[material] += snapshot.priceCents(p);
+      shortfall[material] += state.shortfall(p);
+    }
+
+    List<MaterialBottleneck> bottlenecks = new ArrayList<>();
+    for (int m = 0; m < products.length; m++) {
+      if (products[m] > 0) {
+        bottlenecks.add(new MaterialBottleneck(m, products[m], blockedCents[m], shortfall[m]));
+      }
+    }
+    bottlenecks.sort(Comparator.comparingLong(MaterialBottleneck::blockedValueCents).reversed()
+            .thenComparing(Comparator.comparingLong(MaterialBottleneck::shortfall).reversed())
+            .thenComparingInt(MaterialBottleneck::material));
+    return bottlenecks;
+  }
+
+  public record MaterialBottleneck(int material, int limitedProducts, long blockedValueCents, long shortfall) {
+  }
+}
@@ -0,0 +1,169 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Quantity;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+public class BranchAndBoundPlanner {
+
+  private static final long UNSET = -1;
+  private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+  private final long timeBudgetNanos;
+  private final long nodeLimit;
+
+  public BranchAndBoundPlanner(Duration timeBudget, long nodeLimit) {
+    this.timeBudgetNanos = timeBudget.toNanos();
+    this.nodeLimit = nodeLimit;
+  }
+
+  /** Maximizes the plan's total value within the stock; the result is never worse than {@code incumbent}. */
+  public ProductionPlan solve(BomSnapshot snapshot, long[] incumbent) {
+    Search search = new Search(snapshot, incumbent);
+    boolean completed = search.run(System.nanoTime() + timeBudgetNanos);
+    return new ProductionPlan(search.best, completed, search.nodes);
+  }
+
+  private final class Search {
+    private final BomSnapshot snapshot;
+    private final long[] remaining;
+    private final int[] order;
+    private final long[] current;
+    private final long[] best;
+    private final double[] usedValueByMaterial;
+    private final double[] bestRatioByMaterial;
+    private long bestValue;
+    private long nodes;
+
+    Search(BomSnapshot snapshot, long[] incumbent) {
+      this.snapshot = snapshot;
+      this.remaining = snapshot.stockCopy();
+      this.current = new long[snapshot.productCount()];
+      this.best = incumbent.clone();
+      this.usedValueByMaterial = new double[snapshot.materialCount()];
+      this.bestRatioByMaterial = new double[snapshot.materialCount()];
+      this.order = candidates();
+
+      for (int p = 0; p < best.length; p++) {
+        bestValue += best[p] * snapshot.priceCents(p);
+      }
+    }
+
+    private int[] candidates() {
+      int[] candidates = new int[snapshot.productCount()];
+      int count = 0;
+      for (int p = 0; p < candidates.length; p++) {
+        long capacity = capacity(p);
+        if (snapshot.priceCents(p) > 0 && capacity > 0 && capacity != Long.MAX_VALUE) {
+          candidates[count++] = p;
+        }
+      }
+      return Arrays.copyOf(candidates, count);
+    }
+
+    boolean run(long deadline) {
+      long[] choice = new long[order.length + 1];
+      long currentValue = 0;
+      int depth = 0;
+      choice[0] = UNSET;
+
+      while (depth >= 0) {
+        if (depth == order.length) {
+          if (currentValue > bestValue) {
+            bestValue = currentValue;
+            System.arraycopy(current, 0, best, 0, current.length);
+          }
+          depth--;
+          continue;
+        }
+
+        int p = order[depth];
+        if (choice[depth] == UNSET) {
+          if (nodes >= nodeLimit || (nodes % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline)) {
+            return false;
+          }
+          nodes++;
+
+          // Values are whole cents, so a branch can only improve if its bound reaches at least one cent more;
+          // half a cent of slack absorbs the rounding of the floating-point bound
+          if (currentValue + upperBound(depth) < bestValue + 0.5) {
+            depth--;
+            continue;
+          }
+
+          long units = capacity(p);
+          consume(p, units);
+          current[p] = units;
+          currentValue += units * snapshot.priceCents(p);
+          choice[depth] = units;
+          choice[++depth] = UNSET;
+          continue;
+        }
+
+        if (choice[depth] == 0) {
+          choice[depth] = UNSET;
+          depth--;
+          continue;
+        }
+
+        consume(p, -1);
+        current[p]--;
+        currentValue -= snapshot.priceCents(p);
+        choice[depth]--;
+        choice[++depth] = UNSET;
+      }
+      return true;
+    }
+
+    // Relaxes every constraint except one material at a time: products touching that material can
+    // earn at most its remaining stock times their best value-per-unit-of-material, the rest at most
+    // their standalone capacity.
+    private double upperBound(int fromDepth) {
+      Arrays.fill(usedValueByMaterial, 0);
+      Arrays.fill(bestRatioByMaterial, 0);
+      double free = 0;
+
+      for (int d = fromDepth; d < order.length; d++) {
+        int p = order[d];
+        long capacity = capacity(p);
+        if (capacity == 0) continue;
+
+        double value = (double) capacity * snapshot.priceCents(p);
+        free += value;
+        for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+          long required = snapshot.lineRequired(line);
+          if (required <= 0) continue;
+          int m = snapshot.lineMaterial(line);
+          usedValueByMaterial[m] += value;
+          bestRatioByMaterial[m] = Math.max(bestRatioByMaterial[m], (double) snapshot.priceCents(p) / required);
+        }
+      }
+
+      double bound = free;
+      for (int m = 0; m < remaining.length; m++) {
+        if (usedValueByMaterial[m] > 0) {
+          bound = Math.min(bound, free - usedValueByMaterial[m] + remaining[m] * bestRatioByMaterial[m]);
+        }
+      }
+      return bound;
+    }
+
+    private long capacity(int p) {
+      long capacity = Long.MAX_VALUE;
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        long required = snapshot.lineRequired(line);
+        if (required > 0) {
+          capacity = Math.min(capacity, Quantity.units(remaining[snapshot.lineMaterial(line)], required));
+        }
+      }
+      return Math.max(capacity, 0);
+    }
+
+    private void consume(int p, long units) {
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        remaining[snapshot.lineMaterial(line)] -= snapshot.lineRequired(line) * units;
+      }
+    }
+  }
+}
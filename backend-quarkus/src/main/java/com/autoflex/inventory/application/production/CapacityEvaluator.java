@@ -0,0 +1,78 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Quantity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class CapacityEvaluator {
+
+  private static final int MIN_CHUNK = 1024;
+
+  private final ForkJoinPool pool;
+  private final int parallelThreshold;
+
+  public CapacityEvaluator(ForkJoinPool pool, int parallelThreshold) {
+    this.pool = pool;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  public static CapacityEvaluator sequential() {
+    return new CapacityEvaluator(null, Integer.MAX_VALUE);
+  }
+
+  public long[] evaluate(BomSnapshot snapshot) {
+    long[] capacity = new long[snapshot.productCount()];
+    if (pool == null || capacity.length < parallelThreshold) {
+      evaluate(snapshot, capacity, 0, capacity.length);
+    } else {
+      int chunk = Math.max(MIN_CHUNK, capacity.length / (pool.getParallelism() * 8));
+      pool.invoke(new RangeTask(snapshot, capacity, 0, capacity.length, chunk));
+    }
+    return capacity;
+  }
+
+  public static long capacity(BomSnapshot snapshot, int product) {
+    long maxUnits = Long.MAX_VALUE;
+    for (int line = snapshot.rowStart(product); line < snapshot.rowEnd(product); line++) {
+      long required = snapshot.lineRequired(line);
+      if (required > 0) {
+        maxUnits = Math.min(maxUnits, Quantity.units(snapshot.stock(snapshot.lineMaterial(line)), required));
+      }
+    }
+    return maxUnits <= 0 || maxUnits == Long.MAX_VALUE ? 0 : maxUnits;
+  }
+
+  private static void evaluate(BomSnapshot snapshot, long[] capacity, int from, int to) {
+    for (int p = from; p < to; p++) {
+      capacity[p] = capacity(snapshot, p);
+    }
+  }
+
+  private static final class RangeTask extends RecursiveAction {
+    private final BomSnapshot snapshot;
+    private final long[] capacity;
+    private final int from;
+    private final int to;
+    private final int chunk;
+
+    RangeTask(BomSnapshot snapshot, long[] capacity, int from, int to, int chunk) {
+      this.snapshot = snapshot;
+      this.capacity = capacity;
+      this.from = from;
+      this.to = to;
+      this.chunk = chunk;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= chunk) {
+        evaluate(snapshot, capacity, from, to);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new RangeTask(snapshot, capacity, from, middle, chunk),
+              new RangeTask(snapshot, capacity, middle, to, chunk));
+    }
+  }
+}
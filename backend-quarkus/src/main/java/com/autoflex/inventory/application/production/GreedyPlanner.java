@@ -0,0 +1,53 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Quantity;
+
+public class GreedyPlanner {
+
+  public ProductionPlan plan(BomSnapshot snapshot) {
+    long[] remaining = snapshot.stockCopy();
+    long[] units = new long[snapshot.productCount()];
+
+    for (int p = 0; p < units.length; p++) {
+      units[p] = allocate(snapshot, p, remaining);
+    }
+    return new ProductionPlan(units, false, 0);
+  }
+
+  static long allocate(BomSnapshot snapshot, int product, long[] remaining) {
+    int start = snapshot.rowStart(product);
+    int end = snapshot.rowEnd(product);
+    if (start == end) return 0;
+
+    long maxUnits = Long.MAX_VALUE;
+    for (int line = start; line < end; line++) {
+      long required = snapshot.lineRequired(line);
+      if (required > 0) {
+        maxUnits = Math.min(maxUnits, Quantity.units(remaining[snapshot.lineMaterial(line)], required));
+      }
+    }
+    if (maxUnits <= 0 || maxUnits == Long.MAX_VALUE) return 0;
+
+    for (int line = start; line < end; line++) {
+      remaining[snapshot.lineMaterial(line)] -= snapshot.lineRequired(line) * maxUnits;
+    }
+    return maxUnits;
+  }
+
+  static long allocate(int[] materials, long[] required, int lineCount, long[] remaining) {
+    if (lineCount == 0) return 0;
+
+    long maxUnits = Long.MAX_VALUE;
+    for (int line = 0; line < lineCount; line++) {
+      if (required[line] > 0) {
+        maxUnits = Math.min(maxUnits, Quantity.units(remaining[materials[line]], required[line]));
+      }
+    }
+    if (maxUnits <= 0 || maxUnits == Long.MAX_VALUE) return 0;
+
+    for (int line = 0; line < lineCount; line++) {
+      remaining[materials[line]] -= required[line] * maxUnits;
+    }
+    return maxUnits;
+  }
+}
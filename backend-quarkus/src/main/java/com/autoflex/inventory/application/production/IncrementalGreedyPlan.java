@@ -0,0 +1,167 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Quantity;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/** Greedy plan remembering the stock left before each formula line, so a stock change revisits only what it affects. */
+public class IncrementalGreedyPlan {
+
+  private BomSnapshot snapshot;
+  private final long[] units;
+  private final long[] capacity;
+  private final long[] remainingBefore;
+  private final int[] limitingLine;
+  private final long[] delta;
+  private final boolean[] tracked;
+  private PlanningState published;
+
+  private IncrementalGreedyPlan(BomSnapshot snapshot, long[] capacity) {
+    this.snapshot = snapshot;
+    this.units = new long[snapshot.productCount()];
+    this.capacity = capacity;
+    this.remainingBefore = new long[snapshot.lineCount()];
+    this.limitingLine = new int[snapshot.productCount()];
+    this.delta = new long[snapshot.materialCount()];
+    this.tracked = new boolean[snapshot.materialCount()];
+  }
+
+  public static IncrementalGreedyPlan compute(BomSnapshot snapshot) {
+    return compute(snapshot, CapacityEvaluator.sequential());
+  }
+
+  public static IncrementalGreedyPlan compute(BomSnapshot snapshot, CapacityEvaluator evaluator) {
+    IncrementalGreedyPlan plan = new IncrementalGreedyPlan(snapshot, evaluator.evaluate(snapshot));
+    long[] remaining = snapshot.stockCopy();
+
+    for (int p = 0; p < snapshot.productCount(); p++) {
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        plan.remainingBefore[line] = remaining[snapshot.lineMaterial(line)];
+      }
+      long units = plan.allocate(p);
+      if (units == 0) continue;
+
+      plan.units[p] = units;
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        remaining[snapshot.lineMaterial(line)] -= snapshot.lineRequired(line) * units;
+      }
+    }
+    return plan;
+  }
+
+  public synchronized BomSnapshot snapshot() {
+    return snapshot;
+  }
+
+  // Copied at most once per stock change, so reads in between share the same state
+  public synchronized PlanningState state() {
+    if (published == null) {
+      published = new PlanningState(snapshot, new ProductionPlan(units.clone(), false, 0), capacity.clone(),
+              limitingLine.clone(), remainingBefore.clone());
+    }
+    return published;
+  }
+
+  /** Sets the stock of one material, repairs the plan and returns how many products were re-evaluated. */
+  public synchronized int applyStockChange(int material, long stockHundredths) {
+    long change = stockHundredths - snapshot.stock(material);
+    snapshot = snapshot.withStock(material, stockHundredths);
+    published = null;
+
+    for (int position = snapshot.columnStart(material); position < snapshot.columnEnd(material); position++) {
+      int p = snapshot.columnProduct(position);
+      capacity[p] = CapacityEvaluator.capacity(snapshot, p);
+    }
+    if (change == 0) return 0;
+
+    // Cursors into the material -> products index, encoded as (product << 32 | material) so the queue
+    // yields affected products in allocation order
+    PriorityQueue<Long> cursors = new PriorityQueue<>();
+    delta[material] = change;
+    track(cursors, material, -1);
+
+    int evaluated = 0;
+    while (!cursors.isEmpty()) {
+      int p = (int) (cursors.peek() >>> 32);
+      while (!cursors.isEmpty() && (int) (cursors.peek() >>> 32) == p) {
+        int m = (int) (cursors.poll() & 0xFFFFFFFFL);
+        tracked[m] = false;
+        if (delta[m] != 0) track(cursors, m, p);
+      }
+
+      evaluated++;
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        remainingBefore[line] += delta[snapshot.lineMaterial(line)];
+      }
+
+      long repaired = allocate(p);
+      long difference = repaired - units[p];
+      if (difference == 0) continue;
+
+      units[p] = repaired;
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        int m = snapshot.lineMaterial(line);
+        delta[m] -= snapshot.lineRequired(line) * difference;
+        if (delta[m] != 0 && !tracked[m]) {
+          track(cursors, m, p);
+        }
+      }
+    }
+
+    Arrays.fill(delta, 0);
+    return evaluated;
+  }
+
+  private void track(PriorityQueue<Long> cursors, int material, int afterProduct) {
+    int position = firstPositionAfter(material, afterProduct);
+    if (position < snapshot.columnEnd(material)) {
+      cursors.add(((long) snapshot.columnProduct(position) << 32) | material);
+      tracked[material] = true;
+    }
+  }
+
+  private int firstPositionAfter(int material, int product) {
+    int low = snapshot.columnStart(material);
+    int high = snapshot.columnEnd(material);
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (snapshot.columnProduct(middle) <= product) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // Remaining stock never exceeds the full stock, so a product that cannot be built from the latter gets nothing
+  private long allocate(int p) {
+    if (capacity[p] > 0) return unitsFromRemaining(p);
+
+    int limiting = PlanningState.NO_LIMIT;
+    for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p) && limiting == PlanningState.NO_LIMIT; line++) {
+      long required = snapshot.lineRequired(line);
+      if (required > 0 && remainingBefore[line] < required) limiting = line;
+    }
+    limitingLine[p] = limiting;
+    return 0;
+  }
+
+  private long unitsFromRemaining(int p) {
+    long maxUnits = Long.MAX_VALUE;
+    int limiting = PlanningState.NO_LIMIT;
+    for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+      long required = snapshot.lineRequired(line);
+      if (required > 0) {
+        long units = Quantity.units(remainingBefore[line], required);
+        if (units < maxUnits) {
+          maxUnits = units;
+          limiting = line;
+        }
+      }
+    }
+    limitingLine[p] = limiting;
+    return maxUnits <= 0 || maxUnits == Long.MAX_VALUE ? 0 : maxUnits;
+  }
+}
@@ -0,0 +1,29 @@
+package com.autoflex.inventory.application.production;
+
+/** A consistent view of the greedy plan: each product's limiting line and the stock left before every line. */
+public record PlanningState(
+        BomSnapshot snapshot,
+        ProductionPlan greedy,
+        long[] capacity,
+        int[] limitingLine,
+        long[] remainingBefore
+) {
+
+  public static final int NO_LIMIT = -1;
+
+  public int limitingMaterial(int product) {
+    int line = limitingLine[product];
+    return line == NO_LIMIT ? NO_LIMIT : snapshot.lineMaterial(line);
+  }
+
+  /** Hundredths of the limiting material left after the product was allocated. */
+  public long leftover(int product) {
+    int line = limitingLine[product];
+    return remainingBefore[line] - snapshot.lineRequired(line) * greedy.units()[product];
+  }
+
+  /** Additional hundredths of the limiting material needed to build one more unit. */
+  public long shortfall(int product) {
+    return snapshot.lineRequired(limitingLine[product]) - leftover(product);
+  }
+}
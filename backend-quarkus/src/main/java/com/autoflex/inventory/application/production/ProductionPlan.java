@@ -0,0 +1,8 @@
+package com.autoflex.inventory.application.production;
+
+public record ProductionPlan(
+        long[] units,
+        boolean optimal,
+        long exploredNodes
+) {
+}
@@ -0,0 +1,17 @@
+package com.autoflex.inventory.application.production;
+
+import jakarta.ws.rs.BadRequestException;
+
+public enum ProductionStrategy {
+  GREEDY,
+  OPTIMAL;
+
+  public static ProductionStrategy fromString(String value) {
+    for (ProductionStrategy strategy : values()) {
+      if (strategy.name().equalsIgnoreCase(value)) {
+        return strategy;
+      }
+    }
+    throw new BadRequestException("Unknown production strategy '" + value + "'. Expected one of: greedy, optimal");
+  }
+}
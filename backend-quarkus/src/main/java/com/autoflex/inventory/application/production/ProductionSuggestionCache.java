@@ -0,0 +1,86 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.presentation.dto.ProductionPlanDTO;
+import com.autoflex.inventory.presentation.dto.SuggestionCacheStatsDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@ApplicationScoped
+public class ProductionSuggestionCache {
+
+  private final Map<ProductionStrategy, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder rebuilds = new LongAdder();
+  private final LongAdder rebuildNanos = new LongAdder();
+  private final AtomicLong lastRebuildNanos = new AtomicLong();
+
+  @Inject
+  TransactionSynchronizationRegistry transactions;
+
+  public ProductionPlanDTO get(ProductionStrategy strategy, Supplier<RankedSuggestions> loader) {
+    return getRanked(strategy, loader).plan();
+  }
+
+  /** Never cached inside a transaction, whose uncommitted writes the suggestions may reflect. */
+  public RankedSuggestions getRanked(ProductionStrategy strategy, Supplier<RankedSuggestions> loader) {
+    if (transactions.getTransactionStatus() != Status.STATUS_NO_TRANSACTION) {
+      return loader.get();
+    }
+
+    long observedGeneration = generation.get();
+    Entry entry = entries.get(strategy);
+    if (entry != null && entry.generation() == observedGeneration) {
+      hits.increment();
+      return entry.suggestions();
+    }
+
+    misses.increment();
+    long start = System.nanoTime();
+    RankedSuggestions suggestions = loader.get();
+    long elapsed = System.nanoTime() - start;
+
+    rebuilds.increment();
+    rebuildNanos.add(elapsed);
+    lastRebuildNanos.set(elapsed);
+    entries.put(strategy, new Entry(observedGeneration, suggestions));
+    return suggestions;
+  }
+
+  public void invalidate() {
+    generation.incrementAndGet();
+    entries.clear();
+  }
+
+  public SuggestionCacheStatsDTO stats() {
+    long rebuildCount = rebuilds.sum();
+    return new SuggestionCacheStatsDTO(
+            hits.sum(),
+            misses.sum(),
+            rebuildCount,
+            lastRebuildNanos.get() / 1_000_000.0,
+            rebuildCount == 0 ? 0.0 : rebuildNanos.sum() / 1_000_000.0 / rebuildCount,
+            generation.get()
+    );
+  }
+
+  // AFTER_COMPLETION also covers rollbacks: a rebuild that raced with the transaction is discarded either way
+  void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_COMPLETION) CatalogChangedEvent event) {
+    invalidate();
+  }
+
+  private record Entry(long generation, RankedSuggestions suggestions) {
+  }
+}
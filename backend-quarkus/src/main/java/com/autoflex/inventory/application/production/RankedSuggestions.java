@@ -0,0 +1,99 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Money;
+import com.autoflex.inventory.presentation.dto.ProductionPlanDTO;
+import com.autoflex.inventory.presentation.dto.ProductionSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/** A plan's suggestions with the suffix maximum of their values, so a top-K scan can stop early. */
+public final class RankedSuggestions {
+
+  private final ProductionStrategy strategy;
+  private final BomSnapshot snapshot;
+  private final ProductionPlan plan;
+  private final int[] products;
+  private final long[] valueCents;
+  private final long[] suffixMaxCents;
+  private volatile ProductionPlanDTO full;
+
+  public RankedSuggestions(ProductionStrategy strategy, BomSnapshot snapshot, ProductionPlan plan) {
+    this.strategy = strategy;
+    this.snapshot = snapshot;
+    this.plan = plan;
+    long[] units = plan.units();
+    int count = 0;
+    for (long u : units) {
+      if (u > 0) count++;
+    }
+    this.products = new int[count];
+    this.valueCents = new long[count];
+    this.suffixMaxCents = new long[count + 1];
+    for (int p = 0, i = 0; p < units.length; p++) {
+      if (units[p] <= 0) continue;
+      products[i] = p;
+      valueCents[i] = Math.multiplyExact(units[p], snapshot.priceCents(p));
+      i++;
+    }
+    suffixMaxCents[count] = Long.MIN_VALUE;
+    for (int i = count - 1; i >= 0; i--) {
+      suffixMaxCents[i] = Math.max(valueCents[i], suffixMaxCents[i + 1]);
+    }
+  }
+
+  /** Every suggestion in plan order. */
+  public ProductionPlanDTO plan() {
+    ProductionPlanDTO result = full;
+    if (result == null) {
+      List<Integer> all = new ArrayList<>(products.length);
+      for (int i = 0; i < products.length; i++) {
+        all.add(i);
+      }
+      full = result = toPlan(all);
+    }
+    return result;
+  }
+
+  /** At most {@code limit} suggestions worth {@code minValueCents} or more, highest value first, ties in plan order. */
+  public ProductionPlanDTO top(int limit, long minValueCents) {
+    // Min-heap on value; among equal values the later suggestion is evicted first
+    Comparator<Integer> worstFirst = Comparator.<Integer>comparingLong(i -> valueCents[i]).thenComparing(Comparator.reverseOrder());
+    PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(limit, valueCents.length) + 1, worstFirst);
+
+    for (int i = 0; i < valueCents.length; i++) {
+      if (suffixMaxCents[i] < minValueCents) break;
+      if (heap.size() == limit && suffixMaxCents[i] <= valueCents[heap.peek()]) break;
+      if (valueCents[i] < minValueCents) continue;
+
+      if (heap.size() < limit) {
+        heap.add(i);
+      } else if (valueCents[i] > valueCents[heap.peek()]) {
+        heap.poll();
+        heap.add(i);
+      }
+    }
+
+    List<Integer> selected = new ArrayList<>(heap);
+    selected.sort(worstFirst.reversed());
+    return toPlan(selected);
+  }
+
+  private ProductionPlanDTO toPlan(List<Integer> selected) {
+    List<ProductionSuggestionDTO> suggestions = new ArrayList<>(selected.size());
+    long totalCents = 0;
+    for (int i : selected) {
+      int p = products[i];
+      suggestions.add(new ProductionSuggestionDTO(
+              snapshot.productName(p),
+              (int) plan.units()[p],
+              snapshot.price(p),
+              Money.fromCents(valueCents[i])
+      ));
+      totalCents = Math.addExact(totalCents, valueCents[i]);
+    }
+    return new ProductionPlanDTO(strategy, plan.optimal(), plan.exploredNodes(), Money.fromCents(totalCents), suggestions);
+  }
+}
@@ -0,0 +1,27 @@
+package com.autoflex.inventory.application.production;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/** Plans hypothetical stock levels in parallel, each scenario on its own stock vector over one shared snapshot. */
+public class ScenarioSimulator {
+
+  private final ForkJoinPool pool;
+  private final GreedyPlanner planner = new GreedyPlanner();
+
+  public ScenarioSimulator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  public List<ProductionPlan> simulate(BomSnapshot snapshot, List<long[]> scenarioStock) {
+    if (scenarioStock.size() <= 1) {
+      return scenarioStock.stream().map(stock -> planner.plan(snapshot.withStock(stock))).toList();
+    }
+    return pool.submit(() -> IntStream.range(0, scenarioStock.size())
+            .parallel()
+            .mapToObj(s -> planner.plan(snapshot.withStock(scenarioStock.get(s))))
+            .toList()
+    ).join();
+  }
+}
@@ -0,0 +1,93 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.FormulaLine;
+import com.autoflex.inventory.domain.Quantity;
+import io.quarkus.logging.Log;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/** Greedy allocation over formula lines grouped by product, deciding each product on its last line. */
+public class StreamingGreedyAllocator {
+
+  private final Map<Long, Integer> materialOrdinals;
+  private final long[] remaining;
+  private final ObjLongConsumer<FormulaLine> sink;
+  private final BomExplosion explosion;
+
+  private int[] materials = new int[16];
+  private long[] required = new long[16];
+  private int lineCount;
+  private FormulaLine head;
+
+  public StreamingGreedyAllocator(Map<Long, Integer> materialOrdinals, long[] stock, ObjLongConsumer<FormulaLine> sink) {
+    this(materialOrdinals, stock, sink, BomExplosion.builder().build());
+  }
+
+  public StreamingGreedyAllocator(Map<Long, Integer> materialOrdinals, long[] stock, ObjLongConsumer<FormulaLine> sink,
+                                  BomExplosion explosion) {
+    this.materialOrdinals = materialOrdinals;
+    this.remaining = stock.clone();
+    this.sink = sink;
+    this.explosion = explosion;
+  }
+
+  public void accept(FormulaLine line) {
+    if (head != null && !head.productId().equals(line.productId())) {
+      finishProduct();
+    }
+    if (head == null) {
+      head = line;
+    }
+    if (line.materialId() != null) {
+      addLine(line.productId(), line.materialId(), Quantity.toHundredths(line.requiredQuantity()));
+    }
+  }
+
+  public void finish() {
+    if (head != null) {
+      finishProduct();
+    }
+  }
+
+  private void addLine(long productId, long materialId, long requiredHundredths) {
+    Integer material = materialOrdinals.get(materialId);
+    if (material == null) {
+      throw new IllegalStateException("Formula of product " + productId + " references unknown raw material " + materialId);
+    }
+    if (lineCount == materials.length) {
+      materials = Arrays.copyOf(materials, lineCount * 2);
+      required = Arrays.copyOf(required, lineCount * 2);
+    }
+    materials[lineCount] = material;
+    required[lineCount] = requiredHundredths;
+    lineCount++;
+  }
+
+  private void finishProduct() {
+    if (explosion.hasComponents(head.productId())) {
+      BomExplosion.Requirement requirement;
+      try {
+        requirement = explosion.explode(head.productId());
+      } catch (BomExplosion.CycleException e) {
+        Log.warnf("%s, product left out of production planning", e.getMessage());
+        head = null;
+        lineCount = 0;
+        return;
+      }
+      lineCount = 0;
+      for (int i = 0; i < requirement.size(); i++) {
+        addLine(head.productId(), requirement.materialId(i), requirement.quantity(i));
+      }
+    }
+
+    long units = GreedyPlanner.allocate(materials, required, lineCount, remaining);
+    FormulaLine product = head;
+    head = null;
+    lineCount = 0;
+    if (units > 0) {
+      sink.accept(product, units);
+    }
+  }
+}
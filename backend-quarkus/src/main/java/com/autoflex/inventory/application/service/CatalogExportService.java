@@ -0,0 +1,103 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.application.transfer.FormulaColumn;
+import com.autoflex.inventory.application.transfer.TransferFormat;
+import com.autoflex.inventory.application.transfer.TransferWriter;
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Streams the catalog out through a stateless session and a forward-only cursor, so heap use stays flat. */
+@ApplicationScoped
+public class CatalogExportService {
+
+  @Inject
+  SessionFactory sessionFactory;
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  @ConfigProperty(name = "catalog.export.fetch-size", defaultValue = "1000")
+  int fetchSize;
+
+  public void exportRawMaterials(OutputStream output, TransferFormat format) throws IOException {
+    try (TransferWriter writer = TransferWriter.open(format, output, objectMapper, List.of("id", "name", "stockQuantity"));
+         StatelessSession session = sessionFactory.openStatelessSession();
+         ScrollableResults<Object[]> rows = scroll(session,
+                 "select m.id, m.name, m.stockQuantity from RawMaterial m order by m.id")) {
+      long count = 0;
+      while (rows.next()) {
+        writer.write(rows.get());
+        flushPeriodically(writer, ++count);
+      }
+    }
+  }
+
+  public void exportFormulas(OutputStream output, TransferFormat format) throws IOException {
+    try (TransferWriter writer = TransferWriter.open(format, output, objectMapper, List.of("productId", "materialId", "requiredQuantity"));
+         StatelessSession session = sessionFactory.openStatelessSession();
+         ScrollableResults<Object[]> rows = scroll(session,
+                 "select pm.id.productId, pm.id.materialId, pm.requiredQuantity from ProductMaterial pm " +
+                         "order by pm.id.productId, pm.id.materialId")) {
+      long count = 0;
+      while (rows.next()) {
+        writer.write(rows.get());
+        flushPeriodically(writer, ++count);
+      }
+    }
+  }
+
+  /** One row per product with its formula, in the shape the product import reads. */
+  public void exportProducts(OutputStream output, TransferFormat format) throws IOException {
+    try (TransferWriter writer = TransferWriter.open(format, output, objectMapper, List.of("id", "name", "price", "materials"));
+         StatelessSession session = sessionFactory.openStatelessSession();
+         ScrollableResults<Object[]> rows = scroll(session,
+                 "select p.id, p.name, p.price, pm.id.materialId, pm.requiredQuantity " +
+                         "from Product p left join p.materials pm order by p.id, pm.id.materialId")) {
+      Object[] product = null;
+      List<MaterialAmountDTO> materials = new ArrayList<>();
+      long count = 0;
+      while (rows.next()) {
+        Object[] row = rows.get();
+        if (product == null || !product[0].equals(row[0])) {
+          if (product != null) {
+            writer.write(product[0], product[1], product[2], new FormulaColumn(materials));
+            flushPeriodically(writer, ++count);
+            materials = new ArrayList<>();
+          }
+          product = row;
+        }
+        if (row[3] != null) {
+          materials.add(new MaterialAmountDTO((Long) row[3], (Double) row[4]));
+        }
+      }
+      if (product != null) {
+        writer.write(product[0], product[1], product[2], new FormulaColumn(materials));
+      }
+    }
+  }
+
+  private ScrollableResults<Object[]> scroll(StatelessSession session, String query) {
+    return session.createSelectionQuery(query, Object[].class)
+            .setFetchSize(fetchSize)
+            .scroll(ScrollMode.FORWARD_ONLY);
+  }
+
+  // The first row goes out right away; after that the client receives a chunk every fetch
+  private void flushPeriodically(TransferWriter writer, long count) throws IOException {
+    if (count == 1 || count % fetchSize == 0) {
+      writer.flush();
+    }
+  }
+}
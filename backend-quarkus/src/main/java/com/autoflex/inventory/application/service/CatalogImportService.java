@@ -0,0 +1,316 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.application.transfer.CsvRecordReader;
+import com.autoflex.inventory.application.transfer.TransferFormat;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.domain.StockMovement;
+import com.autoflex.inventory.domain.StockMovementReason;
+import com.autoflex.inventory.presentation.dto.ImportReportDTO;
+import com.autoflex.inventory.presentation.dto.ImportRowErrorDTO;
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductRequestDTO;
+import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.BadRequestException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Imports CSV or NDJSON bodies one transaction per chunk, reporting invalid rows without rejecting the rest. */
+@ApplicationScoped
+public class CatalogImportService {
+
+  private static final List<String> RAW_MATERIAL_COLUMNS = List.of("name", "stockQuantity");
+  private static final List<String> PRODUCT_COLUMNS = List.of("name", "price", "materials");
+
+  @Inject
+  Event<CatalogChangedEvent> catalogChanged;
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  @Inject
+  Validator validator;
+
+  @ConfigProperty(name = "catalog.import.chunk-size", defaultValue = "1000")
+  int chunkSize;
+
+  @ConfigProperty(name = "catalog.import.max-reported-errors", defaultValue = "1000")
+  int maxReportedErrors;
+
+  public ImportReportDTO importRawMaterials(InputStream body, TransferFormat format) {
+    return importRows(body, format, RawMaterialRequestDTO.class, RAW_MATERIAL_COLUMNS,
+            CatalogImportService::toRawMaterial, this::writeRawMaterials);
+  }
+
+  public ImportReportDTO importProducts(InputStream body, TransferFormat format) {
+    return importRows(body, format, ProductRequestDTO.class, PRODUCT_COLUMNS,
+            CatalogImportService::toProduct, this::writeProducts);
+  }
+
+  private <T> ImportReportDTO importRows(InputStream body, TransferFormat format, Class<T> type, List<String> columns,
+                                         Function<CsvRow, T> fromCsv, Function<List<Row<T>>, List<ImportRowErrorDTO>> writer) {
+    ImportRun<T> run = new ImportRun<>(writer);
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      switch (format) {
+        case CSV -> readCsv(reader, columns, fromCsv, run);
+        case NDJSON -> readNdjson(reader, type, run);
+      }
+    } catch (IOException e) {
+      run.reject(run.lastLine + 1, "Could not read the rest of the input: " + e.getMessage());
+    }
+    return run.finish(type.getSimpleName());
+  }
+
+  private <T> void readCsv(BufferedReader reader, List<String> required, Function<CsvRow, T> fromCsv,
+                           ImportRun<T> run) throws IOException {
+    CsvRecordReader records = new CsvRecordReader(reader);
+    List<String> header = records.next();
+    if (header == null) return;
+
+    Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < header.size(); i++) {
+      columns.putIfAbsent(header.get(i).toLowerCase(Locale.ROOT), i);
+    }
+    List<String> missing = required.stream().filter(column -> !columns.containsKey(column.toLowerCase(Locale.ROOT))).toList();
+    if (!missing.isEmpty()) {
+      throw new BadRequestException("Missing CSV columns: " + missing);
+    }
+
+    List<String> values;
+    while ((values = records.next()) != null) {
+      try {
+        run.accept(records.line(), fromCsv.apply(new CsvRow(columns, values)));
+      } catch (IllegalArgumentException e) {
+        run.reject(records.line(), e.getMessage());
+      }
+    }
+  }
+
+  private <T> void readNdjson(BufferedReader reader, Class<T> type, ImportRun<T> run) throws IOException {
+    long line = 0;
+    String text;
+    while ((text = reader.readLine()) != null) {
+      line++;
+      if (text.isBlank()) continue;
+      try {
+        T value = objectMapper.readValue(text, type);
+        if (value == null) {
+          run.reject(line, "Expected a JSON object");
+        } else {
+          run.accept(line, value);
+        }
+      } catch (JsonProcessingException e) {
+        run.reject(line, "Malformed JSON: " + e.getOriginalMessage());
+      }
+    }
+  }
+
+  private List<ImportRowErrorDTO> writeRawMaterials(List<Row<RawMaterialRequestDTO>> chunk) {
+    QuarkusTransaction.requiringNew().run(() -> {
+      for (Row<RawMaterialRequestDTO> row : chunk) {
+        RawMaterial material = new RawMaterial();
+        material.name = row.value().name();
+        material.stockQuantity = row.value().stockQuantity();
+        material.persist();
+        StockMovement.record(material.id, material.stockQuantity, StockMovementReason.IMPORTED);
+      }
+      catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.RAW_MATERIAL, null));
+    });
+    return List.of();
+  }
+
+  private List<ImportRowErrorDTO> writeProducts(List<Row<ProductRequestDTO>> chunk) {
+    return QuarkusTransaction.requiringNew().call(() -> {
+      Set<Long> materialIds = chunk.stream()
+              .flatMap(row -> row.value().materials().stream())
+              .map(MaterialAmountDTO::materialId)
+              .collect(Collectors.toSet());
+      Map<Long, RawMaterial> materials = RawMaterial.findAllByIds(materialIds).stream()
+              .collect(Collectors.toMap(material -> material.id, Function.identity()));
+
+      List<ImportRowErrorDTO> errors = new ArrayList<>();
+      for (Row<ProductRequestDTO> row : chunk) {
+        String error = formulaError(row.value(), materials);
+        if (error != null) {
+          errors.add(new ImportRowErrorDTO(row.line(), error));
+          continue;
+        }
+
+        Product product = new Product();
+        product.name = row.value().name();
+        product.price = row.value().price();
+        for (MaterialAmountDTO amount : row.value().materials()) {
+          ProductMaterial pm = new ProductMaterial();
+          pm.product = product;
+          pm.rawMaterial = materials.get(amount.materialId());
+          pm.requiredQuantity = amount.quantity();
+          product.materials.add(pm);
+        }
+        product.persist();
+      }
+      catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, null));
+      return errors;
+    });
+  }
+
+  private static String formulaError(ProductRequestDTO dto, Map<Long, RawMaterial> materials) {
+    Set<Long> seen = new HashSet<>();
+    for (MaterialAmountDTO amount : dto.materials()) {
+      if (!seen.add(amount.materialId())) {
+        return "Material " + amount.materialId() + " is listed more than once";
+      }
+    }
+    List<Long> missing = seen.stream().filter(id -> !materials.containsKey(id)).sorted().toList();
+    return missing.isEmpty() ? null : "Raw materials not found: " + missing;
+  }
+
+  private static RawMaterialRequestDTO toRawMaterial(CsvRow row) {
+    return new RawMaterialRequestDTO(row.get("name"), row.getDouble("stockQuantity"));
+  }
+
+  // Materials are written as materialId:quantity pairs separated by semicolons, e.g. "12:3.5;14:1"
+  private static ProductRequestDTO toProduct(CsvRow row) {
+    List<MaterialAmountDTO> materials = new ArrayList<>();
+    String formula = row.get("materials");
+    if (formula != null) {
+      for (String entry : formula.split(";")) {
+        if (entry.isBlank()) continue;
+        String[] parts = entry.split(":");
+        try {
+          if (parts.length != 2) throw new NumberFormatException();
+          materials.add(new MaterialAmountDTO(Long.valueOf(parts[0].trim()), Double.valueOf(parts[1].trim())));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid materials entry '" + entry + "', expected materialId:quantity");
+        }
+      }
+    }
+    return new ProductRequestDTO(row.get("name"), row.getBigDecimal("price"), materials);
+  }
+
+  private record Row<T>(long line, T value) {
+  }
+
+  private record CsvRow(Map<String, Integer> columns, List<String> values) {
+
+    String get(String column) {
+      Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+      if (index == null || index >= values.size()) return null;
+      String value = values.get(index);
+      return value.isEmpty() ? null : value;
+    }
+
+    Double getDouble(String column) {
+      String value = get(column);
+      try {
+        return value == null ? null : Double.valueOf(value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid number '" + value + "' in column " + column);
+      }
+    }
+
+    BigDecimal getBigDecimal(String column) {
+      String value = get(column);
+      try {
+        return value == null ? null : new BigDecimal(value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid number '" + value + "' in column " + column);
+      }
+    }
+  }
+
+  private final class ImportRun<T> {
+    private final Function<List<Row<T>>, List<ImportRowErrorDTO>> writer;
+    private final List<Row<T>> chunk = new ArrayList<>();
+    private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+    private final long started = System.nanoTime();
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private int chunks;
+    private long lastLine;
+
+    ImportRun(Function<List<Row<T>>, List<ImportRowErrorDTO>> writer) {
+      this.writer = writer;
+    }
+
+    void accept(long line, T value) {
+      rowsRead++;
+      lastLine = line;
+      Set<ConstraintViolation<T>> violations = validator.validate(value);
+      if (!violations.isEmpty()) {
+        record(line, violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; ")));
+        return;
+      }
+
+      chunk.add(new Row<>(line, value));
+      if (chunk.size() >= chunkSize) flush();
+    }
+
+    void reject(long line, String message) {
+      rowsRead++;
+      lastLine = line;
+      record(line, message);
+    }
+
+    ImportReportDTO finish(String type) {
+      if (!chunk.isEmpty()) flush();
+      long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+      double rowsPerSecond = rowsRead * 1_000_000_000.0 / elapsedNanos;
+      Log.infof("Imported %d of %d %s rows in %d chunks (%.0f rows/s)", imported, rowsRead, type, chunks, rowsPerSecond);
+      return new ImportReportDTO(rowsRead, imported, rejected, chunks, elapsedNanos / 1_000_000, rowsPerSecond,
+              rejected > errors.size(), errors);
+    }
+
+    private void flush() {
+      chunks++;
+      try {
+        List<ImportRowErrorDTO> chunkErrors = writer.apply(chunk);
+        imported += chunk.size() - chunkErrors.size();
+        chunkErrors.forEach(error -> record(error.line(), error.message()));
+      } catch (RuntimeException e) {
+        Log.warnf(e, "Import chunk of %d rows rolled back", chunk.size());
+        for (Row<T> row : chunk) {
+          record(row.line(), "Chunk rolled back: " + e.getMessage());
+        }
+      }
+      chunk.clear();
+    }
+
+    private void record(long line, String message) {
+      rejected++;
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new ImportRowErrorDTO(line, message));
+      }
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.application.pagination.KeysetCursor;
+import com.autoflex.inventory.application.pagination.KeysetPage;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductMaterialLine;
+import com.autoflex.inventory.presentation.dto.ProductMaterialResponseDTO;
+import com.autoflex.inventory.presentation.dto.ProductResponseDTO;
+import com.autoflex.inventory.presentation.dto.RawMaterialResponseDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Read-only catalog queries projected into response records; only lookups and formulas are query-cached. */
+@ApplicationScoped
+@Transactional
+public class CatalogQueryService {
+
+  private static final String RAW_MATERIAL_VIEW =
+          "select new com.autoflex.inventory.presentation.dto.RawMaterialResponseDTO(m.id, m.name, m.stockQuantity, m.reservedQuantity, m.version) " +
+                  "from RawMaterial m";
+
+  private static final String PRODUCT_VIEW =
+          "select new com.autoflex.inventory.presentation.dto.ProductResponseDTO(p.id, p.name, p.price, p.version) from Product p";
+
+  private static final String FORMULA_LINE =
+          "select new com.autoflex.inventory.domain.ProductMaterialLine(" +
+                  "pm.id.productId, m.id, m.name, m.stockQuantity, m.reservedQuantity, m.version, pm.requiredQuantity) " +
+                  "from ProductMaterial pm join pm.rawMaterial m";
+
+  @Inject
+  EntityManager entityManager;
+
+  public List<RawMaterialResponseDTO> getAllRawMaterials() {
+    return select(RAW_MATERIAL_VIEW + " order by m.id", RawMaterialResponseDTO.class).getResultList();
+  }
+
+  public KeysetPage<RawMaterialResponseDTO> getRawMaterialPage(String name, String cursor, int limit) {
+    KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, false);
+    List<String> conditions = new ArrayList<>();
+    Map<String, Object> params = new HashMap<>();
+    if (name != null) {
+      conditions.add("lower(m.name) like :name");
+      params.put("name", "%" + name.toLowerCase() + "%");
+    }
+    if (after != null) {
+      conditions.add("m.id > :id");
+      params.put("id", after.id());
+    }
+
+    String where = conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    TypedQuery<RawMaterialResponseDTO> query = select(RAW_MATERIAL_VIEW + where + " order by m.id", RawMaterialResponseDTO.class)
+            .setMaxResults(limit + 1);
+    params.forEach(query::setParameter);
+    List<RawMaterialResponseDTO> materials = query.getResultList();
+    if (materials.size() <= limit) return new KeysetPage<>(materials, null);
+
+    List<RawMaterialResponseDTO> page = materials.subList(0, limit);
+    return new KeysetPage<>(page, KeysetCursor.afterId(page.get(limit - 1).id()).encode());
+  }
+
+  public RawMaterialResponseDTO getRawMaterialById(Long id) {
+    return cached(RAW_MATERIAL_VIEW + " where m.id = :id", RawMaterialResponseDTO.class)
+            .setParameter("id", id)
+            .getResultStream()
+            .findFirst()
+            .orElseThrow(() -> new NotFoundException("Raw material not found"));
+  }
+
+  public List<ProductResponseDTO> getAllProducts() {
+    List<ProductResponseDTO> products = select(PRODUCT_VIEW + " order by p.price desc, p.id", ProductResponseDTO.class)
+            .getResultList();
+    attachFormulas(products, select(FORMULA_LINE + " order by pm.id.productId, m.id", ProductMaterialLine.class)
+            .getResultList());
+    return products;
+  }
+
+  public KeysetPage<ProductResponseDTO> getProductPage(String name, String cursor, int limit) {
+    KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, true);
+    List<Long> ids = Product.findPageIds(name, after == null ? null : after.price(), after == null ? null : after.id(), limit + 1);
+    boolean hasNext = ids.size() > limit;
+    if (hasNext) ids = ids.subList(0, limit);
+    if (ids.isEmpty()) return new KeysetPage<>(List.of(), null);
+
+    List<ProductResponseDTO> products = select(PRODUCT_VIEW + " where p.id in :ids order by p.price desc, p.id", ProductResponseDTO.class)
+            .setParameter("ids", ids)
+            .getResultList();
+    attachFormulas(products, formulaLines(ids));
+    ProductResponseDTO last = products.get(products.size() - 1);
+    return new KeysetPage<>(products, hasNext ? KeysetCursor.afterPriceAndId(last.price(), last.id()).encode() : null);
+  }
+
+  public ProductResponseDTO getProductById(Long id) {
+    ProductResponseDTO product = cached(PRODUCT_VIEW + " where p.id = :id", ProductResponseDTO.class)
+            .setParameter("id", id)
+            .getResultStream()
+            .findFirst()
+            .orElseThrow(() -> new NotFoundException("Product not found"));
+    attachFormulas(List.of(product), formulaLines(List.of(id)));
+    return product;
+  }
+
+  private List<ProductMaterialLine> formulaLines(Collection<Long> productIds) {
+    return cached(FORMULA_LINE + " where pm.id.productId in :ids order by pm.id.productId, m.id", ProductMaterialLine.class)
+            .setParameter("ids", productIds)
+            .getResultList();
+  }
+
+  private static void attachFormulas(List<ProductResponseDTO> products, List<ProductMaterialLine> lines) {
+    Map<Long, ProductResponseDTO> byId = products.stream()
+            .collect(Collectors.toMap(ProductResponseDTO::id, Function.identity()));
+    for (ProductMaterialLine line : lines) {
+      ProductResponseDTO product = byId.get(line.productId());
+      if (product != null) {
+        product.materials().add(toResponse(line));
+      }
+    }
+  }
+
+  private static ProductMaterialResponseDTO toResponse(ProductMaterialLine line) {
+    return new ProductMaterialResponseDTO(
+            new RawMaterialResponseDTO(line.materialId(), line.materialName(), line.stockQuantity(), line.reservedQuantity(), line.materialVersion()),
+            line.requiredQuantity());
+  }
+
+  private <T> TypedQuery<T> select(String query, Class<T> type) {
+    return entityManager.createQuery(query, type)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+  }
+
+  private <T> TypedQuery<T> cached(String query, Class<T> type) {
+    return select(query, type).setHint(HibernateHints.HINT_CACHEABLE, true);
+  }
+}
@@ -0,0 +1,90 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.domain.BomLock;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductComponent;
+import com.autoflex.inventory.domain.ProductComponentId;
+import com.autoflex.inventory.presentation.dto.ComponentAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductComponentDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApplicationScoped
+public class ProductComponentService {
+
+  @Inject
+  Event<CatalogChangedEvent> catalogChanged;
+
+  public List<ProductComponentDTO> getComponents(Long assemblyId) {
+    if (Product.findById(assemblyId) == null) throw new NotFoundException("Product not found");
+    return toDTOs(ProductComponent.findAllByAssemblyId(assemblyId));
+  }
+
+  @Transactional
+  public List<ProductComponentDTO> addComponentToProduct(Long assemblyId, ComponentAmountDTO dto) {
+    Product assembly = Product.findById(assemblyId);
+    if (assembly == null) throw new NotFoundException("Product not found");
+
+    Product component = Product.findById(dto.componentId());
+    if (component == null) throw new NotFoundException("Component product not found");
+
+    // Without it, two concurrent additions could each pass the check before the other commits
+    BomLock.acquire();
+    if (reaches(component.id, assembly.id)) {
+      throw new BadRequestException("Product " + component.id + " cannot be a component of product " + assembly.id + " because it would create a cycle");
+    }
+
+    ProductComponentId id = new ProductComponentId();
+    id.assemblyId = assembly.id;
+    id.componentId = component.id;
+    ProductComponent pc = ProductComponent.findById(id);
+    if (pc == null) {
+      pc = new ProductComponent();
+      pc.assembly = assembly;
+      pc.component = component;
+      pc.id = id;
+      pc.requiredQuantity = dto.quantity();
+      pc.persist();
+    } else {
+      pc.requiredQuantity = dto.quantity();
+    }
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.FORMULA, assemblyId));
+    return toDTOs(ProductComponent.findAllByAssemblyId(assemblyId));
+  }
+
+  @Transactional
+  public void removeComponentFromProduct(Long assemblyId, Long componentId) {
+    ProductComponent.removeAssociation(assemblyId, componentId);
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.FORMULA, assemblyId));
+  }
+
+  private boolean reaches(Long from, Long target) {
+    Set<Long> visited = new HashSet<>(Set.of(from));
+    Set<Long> frontier = Set.of(from);
+    while (!frontier.isEmpty()) {
+      if (frontier.contains(target)) return true;
+
+      Set<Long> next = new HashSet<>();
+      for (Long componentId : ProductComponent.findComponentIds(frontier)) {
+        if (visited.add(componentId)) next.add(componentId);
+      }
+      frontier = next;
+    }
+    return false;
+  }
+
+  private List<ProductComponentDTO> toDTOs(List<ProductComponent> components) {
+    return components.stream()
+            .map(pc -> new ProductComponentDTO(pc.component.id, pc.component.name, pc.requiredQuantity))
+            .toList();
+  }
+}
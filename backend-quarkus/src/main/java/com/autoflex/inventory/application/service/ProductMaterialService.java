@@ -1,14 +1,22 @@
 package com.autoflex.inventory.application.service;
 
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.application.exception.PreconditionFailedException;
 import com.autoflex.inventory.domain.Product;
 import com.autoflex.inventory.domain.ProductMaterial;
 import com.autoflex.inventory.domain.RawMaterial;
 import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
 import com.autoflex.inventory.presentation.dto.ProductMaterialUpdateDTO;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,32 +25,56 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class ProductMaterialService {
 
+  @Inject
+  Event<CatalogChangedEvent> catalogChanged;
+
+  @Inject
+  RawMaterialService rawMaterialService;
+
   @Transactional
   public Product addMaterialToProduct(Long productId, MaterialAmountDTO dto) {
+    return addMaterialsToProduct(productId, List.of(dto));
+  }
+
+  @Transactional
+  public Product addMaterialsToProduct(Long productId, List<MaterialAmountDTO> dtos) {
     Product product = Product.findByIdWithMaterials(productId);
     if (product == null) throw new NotFoundException("Product not found");
 
-    RawMaterial rm = RawMaterial.findById(dto.materialId());
-    if (rm == null) throw new NotFoundException("Material not found");
-
-    ProductMaterial pm = new ProductMaterial();
-    pm.product = product;
-    pm.rawMaterial = rm;
-    pm.requiredQuantity = dto.quantity();
-    pm.id.productId = productId;
-    pm.id.materialId = rm.id;
+    Set<Long> existingIds = product.materials.stream()
+            .map(pm -> pm.rawMaterial.id)
+            .collect(Collectors.toSet());
+    Set<Long> incomingIds = new HashSet<>();
+    for (MaterialAmountDTO dto : dtos) {
+      if (existingIds.contains(dto.materialId()) || !incomingIds.add(dto.materialId())) {
+        throw new BadRequestException("Material " + dto.materialId() + " is already part of the product");
+      }
+    }
+    Map<Long, RawMaterial> materials = rawMaterialService.getRawMaterialsByIds(incomingIds);
 
-    product.materials.add(pm);
-    product.persist();
+    List<ProductMaterial> added = new ArrayList<>(dtos.size());
+    for (MaterialAmountDTO dto : dtos) {
+      added.add(newProductMaterial(product, materials.get(dto.materialId()), dto.quantity()));
+    }
+    product.materials.addAll(added);
+    ProductMaterial.persist(added);
+    touch(product);
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.FORMULA, productId));
     return product;
   }
 
   @Transactional
   public List<ProductMaterial> updateMaterialInProduct(Long productId, ProductMaterialUpdateDTO dto) {
+    return updateMaterialInProduct(productId, dto, null);
+  }
+
+  @Transactional
+  public List<ProductMaterial> updateMaterialInProduct(Long productId, ProductMaterialUpdateDTO dto, Set<Long> expectedVersions) {
     List<ProductMaterial> currentPms = ProductMaterial.findAllByProductId(productId);
 
     Product product = Product.findById(productId);
     if (product == null) throw new NotFoundException("Product not found");
+    PreconditionFailedException.requireVersion("Product", expectedVersions, product.version);
 
     Map<Long, ProductMaterial> existingMap = currentPms.stream()
             .collect(Collectors.toMap(pm -> pm.rawMaterial.id, pm -> pm));
@@ -51,6 +83,9 @@ public class ProductMaterialService {
             .map(MaterialAmountDTO::materialId)
             .collect(Collectors.toSet());
 
+    List<Long> newIds = incomingIds.stream().filter(id -> !existingMap.containsKey(id)).toList();
+    Map<Long, RawMaterial> newMaterials = newIds.isEmpty() ? Map.of() : rawMaterialService.getRawMaterialsByIds(newIds);
+
     currentPms.removeIf(pm -> {
       if (!incomingIds.contains(pm.rawMaterial.id)) {
         pm.delete();
@@ -59,29 +94,51 @@ public class ProductMaterialService {
       return false;
     });
 
+    List<ProductMaterial> added = new ArrayList<>(newIds.size());
     for (MaterialAmountDTO ma : dto.materials()) {
       ProductMaterial pm = existingMap.get(ma.materialId());
 
       if (pm != null) {
         pm.requiredQuantity = ma.quantity();
       } else {
-        RawMaterial rm = RawMaterial.findById(ma.materialId());
-        if (rm == null) throw new NotFoundException("Material " + ma.materialId() + " not found");
-
-        ProductMaterial newPm = new ProductMaterial();
-        newPm.product = product;
-        newPm.rawMaterial = rm;
-        newPm.requiredQuantity = ma.quantity();
-        newPm.id.productId = productId;
-        newPm.id.materialId = rm.id;
-        newPm.persist();
+        added.add(newProductMaterial(product, newMaterials.get(ma.materialId()), ma.quantity()));
       }
     }
+    ProductMaterial.persist(added);
+    touch(product);
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.FORMULA, productId));
     return ProductMaterial.findAllByProductId(productId);
   }
 
   @Transactional
   public void removeMaterialFromProduct(Long productId, Long materialId) {
+    removeMaterialFromProduct(productId, materialId, null);
+  }
+
+  @Transactional
+  public void removeMaterialFromProduct(Long productId, Long materialId, Set<Long> expectedVersions) {
+    Product product = Product.findById(productId);
+    PreconditionFailedException.requireVersion("Product", expectedVersions, product == null ? null : product.version);
     ProductMaterial.removeAssociation(productId, materialId);
+    if (product != null) touch(product);
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.FORMULA, productId));
+  }
+
+  // The formula is part of the product, so changing it moves the product to a new version. The increment is
+  // checked at commit instead of locking the product row for the rest of the transaction; a concurrent change of
+  // the same product then fails the commit and is reported as a conflict
+  private static void touch(Product product) {
+    Product.flush();
+    Product.getEntityManager().lock(product, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+  }
+
+  private static ProductMaterial newProductMaterial(Product product, RawMaterial material, Double quantity) {
+    ProductMaterial pm = new ProductMaterial();
+    pm.product = product;
+    pm.rawMaterial = material;
+    pm.requiredQuantity = quantity;
+    pm.id.productId = product.id;
+    pm.id.materialId = material.id;
+    return pm;
   }
 }
@@ -1,31 +1,96 @@
 package com.autoflex.inventory.application.service;
 
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.application.exception.PreconditionFailedException;
+import com.autoflex.inventory.application.pagination.KeysetCursor;
+import com.autoflex.inventory.application.pagination.KeysetPage;
+import com.autoflex.inventory.application.production.BomExplosion;
+import com.autoflex.inventory.application.production.BomSnapshot;
+import com.autoflex.inventory.application.production.BomSnapshotHolder;
+import com.autoflex.inventory.application.production.BottleneckReport;
+import com.autoflex.inventory.application.production.BranchAndBoundPlanner;
+import com.autoflex.inventory.application.production.PlanningState;
+import com.autoflex.inventory.application.production.ProductionPlan;
+import com.autoflex.inventory.application.production.ProductionStrategy;
+import com.autoflex.inventory.application.production.ProductionSuggestionCache;
+import com.autoflex.inventory.application.production.RankedSuggestions;
+import com.autoflex.inventory.application.production.StreamingGreedyAllocator;
+import com.autoflex.inventory.domain.FormulaLine;
+import com.autoflex.inventory.domain.Money;
 import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductComponent;
 import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.domain.Quantity;
 import com.autoflex.inventory.domain.RawMaterial;
 import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.autoflex.inventory.presentation.dto.MaterialBottleneckDTO;
 import com.autoflex.inventory.presentation.dto.ProductRequestDTO;
+import com.autoflex.inventory.presentation.dto.ProductionPlanDTO;
 import com.autoflex.inventory.presentation.dto.ProductUpdateDTO;
 import com.autoflex.inventory.presentation.dto.ProductionSuggestionDTO;
-import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import com.autoflex.inventory.presentation.dto.ProductionSuggestionDetailDTO;
+import com.autoflex.inventory.presentation.dto.SimulationRequestDTO;
+import com.autoflex.inventory.presentation.dto.SimulationResultDTO;
+import com.autoflex.inventory.presentation.dto.SimulationScenarioDTO;
+import com.autoflex.inventory.presentation.dto.StockDeltaDTO;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ProductService {
 
+  private static final int STREAM_FETCH_SIZE = 500;
+
+  @Inject
+  Event<CatalogChangedEvent> catalogChanged;
+
+  @Inject
+  ProductionSuggestionCache suggestionCache;
+
+  @Inject
+  BomSnapshotHolder snapshotHolder;
+
+  @Inject
+  RawMaterialService rawMaterialService;
+
+  @ConfigProperty(name = "production.optimizer.time-budget", defaultValue = "PT0.5S")
+  Duration optimizerTimeBudget;
+
+  @ConfigProperty(name = "production.optimizer.node-limit", defaultValue = "1000000")
+  long optimizerNodeLimit;
+
   public List<Product> getAllProducts() {
     return Product.listAllWithMaterials();
   }
 
+  public KeysetPage<Product> getProductPage(String name, String cursor, int limit) {
+    KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, true);
+    List<Long> ids = Product.findPageIds(name, after == null ? null : after.price(), after == null ? null : after.id(), limit + 1);
+    boolean hasNext = ids.size() > limit;
+    if (hasNext) ids = ids.subList(0, limit);
+    if (ids.isEmpty()) return new KeysetPage<>(List.of(), null);
+
+    List<Product> products = Product.findAllWithMaterialsByIds(ids);
+    Product last = products.get(products.size() - 1);
+    return new KeysetPage<>(products, hasNext ? KeysetCursor.afterPriceAndId(last.price, last.id).encode() : null);
+  }
+
   public Product getProductById(Long id) {
     Product product = Product.findByIdWithMaterials(id);
     if (product == null) {
@@ -39,80 +104,190 @@ public class ProductService {
     Product product = new Product();
     product.name = dto.name();
     product.price = dto.price();
+    Map<Long, RawMaterial> materials = rawMaterialService.getRawMaterialsByIds(
+            dto.materials().stream().map(MaterialAmountDTO::materialId).toList());
     product.persist();
 
     for (MaterialAmountDTO mDto : dto.materials()) {
-      RawMaterial material = RawMaterial.findById(mDto.materialId());
-      if (material == null) throw new NotFoundException("Material not found");
-
       ProductMaterial pm = new ProductMaterial();
       pm.product = product;
-      pm.rawMaterial = material;
+      pm.rawMaterial = materials.get(mDto.materialId());
       pm.requiredQuantity = mDto.quantity();
       product.materials.add(pm);
-      pm.persist();
     }
+    ProductMaterial.persist(product.materials);
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, product.id));
 
     return product;
   }
 
   @Transactional
   public Product updateProductWithMaterials(Long id, ProductUpdateDTO dto) {
+    return updateProductWithMaterials(id, dto, null);
+  }
+
+  @Transactional
+  public Product updateProductWithMaterials(Long id, ProductUpdateDTO dto, Set<Long> expectedVersions) {
     Product product = Product.findByIdWithMaterials(id);
     if (product == null) {
       throw new NotFoundException("Product not found");
     }
+    PreconditionFailedException.requireVersion("Product", expectedVersions, product.version);
     if (dto.name() != null) product.name = dto.name();
     if (dto.price() != null) product.price = dto.price();
+    // Flushed here so a concurrent write since the read fails its optimistic lock inside this method
+    Product.flush();
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, id));
 
     return product;
   }
 
   public List<ProductionSuggestionDTO> getProductionSuggestions() {
-    List<Product> products = Product.listAllWithMaterials();
+    return getProductionPlan(ProductionStrategy.GREEDY).suggestions();
+  }
 
-    Map<Long, Double> availableStock = RawMaterial.<RawMaterial>listAll().stream()
-            .collect(Collectors.toMap(rm -> rm.id, rm -> rm.stockQuantity));
+  public ProductionPlanDTO getProductionPlan(ProductionStrategy strategy) {
+    return suggestionCache.get(strategy, () -> computeProductionPlan(strategy));
+  }
 
-    List<ProductionSuggestionDTO> suggestions = new ArrayList<>();
+  public ProductionPlanDTO getTopProductionPlan(ProductionStrategy strategy, Integer limit, BigDecimal minTotalValue) {
+    return suggestionCache.getRanked(strategy, () -> computeProductionPlan(strategy)).top(
+            limit == null ? Integer.MAX_VALUE : limit,
+            minTotalValue == null ? Long.MIN_VALUE : Money.toCents(minTotalValue)
+    );
+  }
 
-    for (Product p : products) {
-      long maxUnitsForProduct = Long.MAX_VALUE;
+  public List<ProductionSuggestionDetailDTO> getDetailedProductionSuggestions() {
+    PlanningState state = snapshotHolder.current();
+    BomSnapshot snapshot = state.snapshot();
+    long[] units = state.greedy().units();
 
-      if (p.materials.isEmpty()) continue;
+    List<ProductionSuggestionDetailDTO> suggestions = new ArrayList<>();
+    for (int p = 0; p < units.length; p++) {
+      int material = state.limitingMaterial(p);
+      if (units[p] <= 0 && material == PlanningState.NO_LIMIT) continue;
 
-      for (ProductMaterial formula : p.materials) {
-        double inStock = availableStock.getOrDefault(formula.rawMaterial.id, 0.0);
-        double required = formula.requiredQuantity;
+      suggestions.add(new ProductionSuggestionDetailDTO(
+              snapshot.productName(p),
+              (int) units[p],
+              snapshot.price(p),
+              Money.fromCents(Math.multiplyExact(units[p], snapshot.priceCents(p))),
+              material == PlanningState.NO_LIMIT ? null : snapshot.materialId(material),
+              material == PlanningState.NO_LIMIT ? null : Quantity.toDouble(state.leftover(p)),
+              material == PlanningState.NO_LIMIT ? null : Quantity.toDouble(state.shortfall(p))
+      ));
+    }
+    return suggestions;
+  }
 
-        if (required > 0) {
-          long possibleWithThisMaterial = (long) Math.floor(inStock / required);
-          maxUnitsForProduct = Math.min(maxUnitsForProduct, possibleWithThisMaterial);
-        }
-      }
+  public List<MaterialBottleneckDTO> getMaterialBottlenecks(Integer limit) {
+    PlanningState state = snapshotHolder.current();
+    return BottleneckReport.rank(state).stream()
+            .limit(limit == null ? Long.MAX_VALUE : limit)
+            .map(bottleneck -> new MaterialBottleneckDTO(
+                    state.snapshot().materialId(bottleneck.material()),
+                    bottleneck.limitedProducts(),
+                    Money.fromCents(bottleneck.blockedValueCents()),
+                    Quantity.toDouble(bottleneck.shortfall())
+            ))
+            .toList();
+  }
 
-      if (maxUnitsForProduct > 0) {
-        for (ProductMaterial formula : p.materials) {
-          double totalUsed = formula.requiredQuantity * maxUnitsForProduct;
-          availableStock.merge(formula.rawMaterial.id, -totalUsed, Double::sum);
-        }
+  private RankedSuggestions computeProductionPlan(ProductionStrategy strategy) {
+    PlanningState state = snapshotHolder.current();
+    BomSnapshot snapshot = state.snapshot();
+    ProductionPlan greedy = state.greedy();
 
-        BigDecimal quantity = BigDecimal.valueOf(maxUnitsForProduct);
+    ProductionPlan plan = switch (strategy) {
+      case GREEDY -> greedy;
+      case OPTIMAL -> new BranchAndBoundPlanner(optimizerTimeBudget, optimizerNodeLimit).solve(snapshot, greedy.units());
+    };
+    return new RankedSuggestions(strategy, snapshot, plan);
+  }
+
+  public List<SimulationResultDTO> simulateProduction(SimulationRequestDTO dto) {
+    BomSnapshot snapshot = snapshotHolder.current().snapshot();
 
-        suggestions.add(new ProductionSuggestionDTO(
-                p.name,
-                (int) maxUnitsForProduct,
-                p.price,
-                p.price.multiply(quantity)
-        ));
+    List<long[]> scenarioStock = new ArrayList<>(dto.scenarios().size());
+    for (SimulationScenarioDTO scenario : dto.scenarios()) {
+      long[] stock = snapshot.stockCopy();
+      for (StockDeltaDTO change : scenario.stockChanges()) {
+        int material = snapshot.materialOrdinal(change.materialId());
+        if (material < 0) throw new NotFoundException("Material not found");
+        stock[material] += Quantity.toHundredths(change.quantity());
+      }
+      for (int m = 0; m < stock.length; m++) {
+        stock[m] = Math.max(stock[m], 0);
       }
+      scenarioStock.add(stock);
     }
-    return suggestions;
+
+    List<ProductionPlan> plans = snapshotHolder.simulator().simulate(snapshot, scenarioStock);
+    List<SimulationResultDTO> results = new ArrayList<>(plans.size());
+    for (int s = 0; s < plans.size(); s++) {
+      ProductionPlanDTO plan = new RankedSuggestions(ProductionStrategy.GREEDY, snapshot, plans.get(s)).plan();
+      results.add(new SimulationResultDTO(dto.scenarios().get(s).name(), plan.totalValue(), plan.suggestions()));
+    }
+    return results;
+  }
+
+  @Transactional
+  public void streamProductionSuggestions(Consumer<ProductionSuggestionDTO> sink) {
+    List<RawMaterial> materials = RawMaterial.listAll();
+    Map<Long, Integer> materialOrdinals = new HashMap<>();
+    long[] stock = new long[materials.size()];
+    for (RawMaterial material : materials) {
+      stock[materialOrdinals.size()] = Quantity.toHundredths(material.availableQuantity());
+      materialOrdinals.put(material.id, materialOrdinals.size());
+    }
+
+    StreamingGreedyAllocator allocator = new StreamingGreedyAllocator(materialOrdinals, stock, (product, units) ->
+            sink.accept(new ProductionSuggestionDTO(
+                    product.productName(),
+                    (int) units,
+                    product.price(),
+                    Money.fromCents(Math.multiplyExact(units, Money.toCents(product.price())))
+            )), loadExplosion());
+
+    try (Stream<FormulaLine> lines = ProductMaterial.streamFormulaLines(STREAM_FETCH_SIZE)) {
+      lines.forEach(allocator::accept);
+    }
+    allocator.finish();
+  }
+
+  private BomExplosion loadExplosion() {
+    BomExplosion.Builder builder = BomExplosion.builder();
+    List<ProductComponent> components = ProductComponent.listAllComponents();
+    if (components.isEmpty()) return builder.build();
+
+    Set<Long> productIds = new HashSet<>();
+    for (ProductComponent component : components) {
+      builder.addComponent(component.id.assemblyId, component.id.componentId, Quantity.toHundredths(component.requiredQuantity));
+      productIds.add(component.id.assemblyId);
+      productIds.add(component.id.componentId);
+    }
+    for (ProductMaterial formula : ProductMaterial.findAllByProductIds(productIds)) {
+      builder.addMaterial(formula.id.productId, formula.id.materialId, Quantity.toHundredths(formula.requiredQuantity));
+    }
+    return builder.build();
   }
 
   @Transactional
   public void deleteProductById(Long id) {
-    Product.findByIdOptional(id)
-            .ifPresentOrElse(PanacheEntityBase::delete, () -> Log.warn("WARNING: Attempted to delete non-existent product with id " + id));
+    deleteProductById(id, null);
+  }
+
+  @Transactional
+  public void deleteProductById(Long id, Set<Long> expectedVersions) {
+    Product.<Product>findByIdOptional(id)
+            .ifPresentOrElse(product -> {
+              PreconditionFailedException.requireVersion("Product", expectedVersions, product.version);
+              product.delete();
+              Product.flush();
+              catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, id));
+            }, () -> {
+              PreconditionFailedException.requireVersion("Product", expectedVersions, null);
+              Log.warn("WARNING: Attempted to delete non-existent product with id " + id);
+            });
   }
 }
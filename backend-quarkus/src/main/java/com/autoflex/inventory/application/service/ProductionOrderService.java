@@ -0,0 +1,149 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.application.exception.ConflictException;
+import com.autoflex.inventory.application.production.BomExplosion;
+import com.autoflex.inventory.domain.Money;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductComponent;
+import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.domain.ProductionOrder;
+import com.autoflex.inventory.domain.ProductionOrderItem;
+import com.autoflex.inventory.domain.ProductionOrderMaterial;
+import com.autoflex.inventory.domain.Quantity;
+import com.autoflex.inventory.domain.StockMovementReason;
+import com.autoflex.inventory.domain.StockOperation;
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderItemDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderLineDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderRequestDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Commits a production plan, drawing all its exploded materials in one conditional UPDATE or nothing at all. */
+@ApplicationScoped
+public class ProductionOrderService {
+
+  @Inject
+  StockService stockService;
+
+  public ProductionOrderDTO placeOrder(ProductionOrderRequestDTO dto) {
+    SortedMap<Long, Integer> units = dto.lines().stream().collect(Collectors.toMap(
+            ProductionOrderLineDTO::productId, ProductionOrderLineDTO::units, Math::addExact, TreeMap::new));
+    try {
+      return QuarkusTransaction.requiringNew().call(() -> execute(units));
+    } catch (StockService.Rejected rejected) {
+      throw rejected.explain();
+    }
+  }
+
+  @Transactional
+  public ProductionOrderDTO getOrderById(Long id) {
+    ProductionOrder order = ProductionOrder.findByIdWithItems(id);
+    if (order == null) {
+      throw new NotFoundException("Production order not found");
+    }
+    return toDTO(order);
+  }
+
+  private ProductionOrderDTO execute(SortedMap<Long, Integer> units) {
+    Map<Long, Product> products = Product.<Product>list("id in ?1", units.keySet()).stream()
+            .collect(Collectors.toMap(product -> product.id, Function.identity()));
+    List<Long> missing = units.keySet().stream().filter(id -> !products.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      throw new NotFoundException("Products not found: " + missing);
+    }
+
+    ProductionOrder order = new ProductionOrder();
+    order.createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    long totalCents = 0;
+    for (Map.Entry<Long, Integer> line : units.entrySet()) {
+      Product product = products.get(line.getKey());
+      ProductionOrderItem item = new ProductionOrderItem();
+      item.productId = product.id;
+      item.productName = product.name;
+      item.units = line.getValue();
+      item.unitPrice = product.price;
+      order.items.add(item);
+      totalCents = Math.addExact(totalCents, Math.multiplyExact(Money.toCents(product.price), (long) line.getValue()));
+    }
+    order.totalValue = Money.fromCents(totalCents);
+    SortedMap<Long, Double> consumption = consumption(units);
+    consumption.forEach((materialId, quantity) -> {
+      ProductionOrderMaterial material = new ProductionOrderMaterial();
+      material.materialId = materialId;
+      material.quantity = quantity;
+      order.materials.add(material);
+    });
+    // Persisting first assigns the id the ledger movements refer to; a rejected order is rolled back with them
+    order.persist();
+    if (!consumption.isEmpty()) {
+      stockService.applyInTransaction(StockOperation.CONSUME, consumption, StockMovementReason.PRODUCTION_ORDER, order.id);
+    }
+    return toDTO(order);
+  }
+
+  private static SortedMap<Long, Double> consumption(SortedMap<Long, Integer> units) {
+    BomExplosion explosion = explosion(units.keySet());
+    SortedMap<Long, Long> hundredths = new TreeMap<>();
+    units.forEach((productId, count) -> {
+      BomExplosion.Requirement requirement;
+      try {
+        requirement = explosion.explode(productId);
+      } catch (BomExplosion.CycleException e) {
+        throw new ConflictException(e.getMessage());
+      }
+      for (int i = 0; i < requirement.size(); i++) {
+        hundredths.merge(requirement.materialId(i), Math.multiplyExact(requirement.quantity(i), (long) count), Math::addExact);
+      }
+    });
+    SortedMap<Long, Double> quantities = new TreeMap<>();
+    hundredths.forEach((materialId, quantity) -> quantities.put(materialId, Quantity.toDouble(quantity)));
+    return quantities;
+  }
+
+  // Only the ordered products and the components they reach are loaded, one query per level of the tree
+  private static BomExplosion explosion(Set<Long> productIds) {
+    BomExplosion.Builder builder = BomExplosion.builder();
+    Set<Long> reached = new HashSet<>(productIds);
+    Set<Long> frontier = productIds;
+    while (!frontier.isEmpty()) {
+      Set<Long> next = new HashSet<>();
+      for (ProductComponent component : ProductComponent.findAllByAssemblyIds(frontier)) {
+        builder.addComponent(component.id.assemblyId, component.id.componentId, Quantity.toHundredths(component.requiredQuantity));
+        if (reached.add(component.id.componentId)) next.add(component.id.componentId);
+      }
+      frontier = next;
+    }
+    for (ProductMaterial formula : ProductMaterial.findAllByProductIds(reached)) {
+      builder.addMaterial(formula.id.productId, formula.id.materialId, Quantity.toHundredths(formula.requiredQuantity));
+    }
+    return builder.build();
+  }
+
+  private static ProductionOrderDTO toDTO(ProductionOrder order) {
+    List<ProductionOrderItemDTO> items = order.items.stream()
+            .map(item -> new ProductionOrderItemDTO(item.productId, item.productName, item.units, item.unitPrice,
+                    item.unitPrice.multiply(BigDecimal.valueOf(item.units))))
+            .toList();
+    List<MaterialAmountDTO> materials = order.materials.stream()
+            .map(material -> new MaterialAmountDTO(material.materialId, material.quantity))
+            .toList();
+    return new ProductionOrderDTO(order.id, order.createdAt, order.totalValue, items, materials);
+  }
+}
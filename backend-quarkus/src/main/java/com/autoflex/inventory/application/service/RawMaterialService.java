@@ -1,22 +1,53 @@
 package com.autoflex.inventory.application.service;
 
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.application.exception.PreconditionFailedException;
+import com.autoflex.inventory.application.pagination.KeysetCursor;
+import com.autoflex.inventory.application.pagination.KeysetPage;
+import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.domain.Quantity;
 import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.domain.StockMovement;
+import com.autoflex.inventory.domain.StockMovementReason;
 import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
-import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class RawMaterialService {
 
+  // Flushing and clearing every few JDBC batches keeps the persistence context small during large imports
+  private static final int BULK_FLUSH_INTERVAL = 1000;
+
+  @Inject
+  Event<CatalogChangedEvent> catalogChanged;
+
   public List<RawMaterial> getAllRawMaterials() {
     return RawMaterial.listAll();
   }
 
+  public KeysetPage<RawMaterial> getRawMaterialPage(String name, String cursor, int limit) {
+    KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, false);
+    List<RawMaterial> materials = RawMaterial.findPage(name, after == null ? null : after.id(), limit + 1);
+    if (materials.size() <= limit) return new KeysetPage<>(materials, null);
+
+    List<RawMaterial> page = materials.subList(0, limit);
+    return new KeysetPage<>(page, KeysetCursor.afterId(page.get(limit - 1).id).encode());
+  }
+
   public RawMaterial getRawMaterialById(Long id) {
     RawMaterial material = RawMaterial.findById(id);
     if (material == null) {
@@ -25,33 +56,106 @@ public class RawMaterialService {
     return material;
   }
 
+  /** Resolves the ids in chunks and fails with every missing id at once. */
+  public Map<Long, RawMaterial> getRawMaterialsByIds(Collection<Long> ids) {
+    Map<Long, RawMaterial> materials = RawMaterial.findAllByIds(ids).stream()
+            .collect(Collectors.toMap(material -> material.id, Function.identity()));
+
+    List<Long> missing = ids.stream().distinct().filter(id -> !materials.containsKey(id)).sorted().toList();
+    if (!missing.isEmpty()) {
+      throw new NotFoundException("Raw materials not found: " + missing);
+    }
+    return materials;
+  }
+
   @Transactional
   public RawMaterial saveRawMaterial(RawMaterialRequestDTO dto) {
     RawMaterial material = new RawMaterial();
     material.name = dto.name();
     material.stockQuantity = dto.stockQuantity();
     material.persist();
+    StockMovement.record(material.id, material.stockQuantity, StockMovementReason.CREATED);
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.RAW_MATERIAL, material.id));
 
     return material;
   }
 
+  @Transactional
+  public List<RawMaterial> saveRawMaterials(List<RawMaterialRequestDTO> dtos) {
+    EntityManager entityManager = RawMaterial.getEntityManager();
+    List<RawMaterial> materials = new ArrayList<>(dtos.size());
+    for (RawMaterialRequestDTO dto : dtos) {
+      RawMaterial material = new RawMaterial();
+      material.name = dto.name();
+      material.stockQuantity = dto.stockQuantity();
+      material.persist();
+      StockMovement.record(material.id, material.stockQuantity, StockMovementReason.CREATED);
+      materials.add(material);
+
+      if (materials.size() % BULK_FLUSH_INTERVAL == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+    catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.RAW_MATERIAL, null));
+
+    return materials;
+  }
+
   @Transactional
   public RawMaterial updateRawMaterial(Long id, RawMaterialRequestDTO dto) {
+    return updateRawMaterial(id, dto, null);
+  }
+
+  @Transactional
+  public RawMaterial updateRawMaterial(Long id, RawMaterialRequestDTO dto, Set<Long> expectedVersions) {
     RawMaterial material = RawMaterial.findById(id);
     if(material == null) {
       throw new NotFoundException("Raw material not found");
     }
+    PreconditionFailedException.requireVersion("Raw material", expectedVersions, material.version);
 
-    if(dto.name() != null) material.name = dto.name();
-    if(dto.stockQuantity() != null) material.stockQuantity = dto.stockQuantity();
+    boolean renamed = dto.name() != null && !dto.name().equals(material.name);
+    if(renamed) material.name = dto.name();
+    long delta = 0;
+    if(dto.stockQuantity() != null) {
+      delta = Quantity.toHundredths(dto.stockQuantity()) - Quantity.toHundredths(material.stockQuantity);
+      material.stockQuantity = dto.stockQuantity();
+    }
+    // Flushed here so a concurrent write since the read fails its optimistic lock inside this method, and so the
+    // movement is stamped while the row is held, which ledger compaction relies on
+    RawMaterial.flush();
+    if(delta != 0) {
+      StockMovement.record(id, Quantity.toDouble(delta), StockMovementReason.ADJUSTMENT);
+      catalogChanged.fire(CatalogChangedEvent.stock(id, material.availableQuantity(), material.version));
+    }
+    if(renamed) catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.RAW_MATERIAL, id));
 
     return material;
   }
 
   @Transactional
   public void deleteRawMaterialById(Long id) {
-    RawMaterial.findByIdOptional(id)
-            .ifPresentOrElse(PanacheEntityBase::delete, () -> Log.warn("WARNING: Attempted to delete non-existent raw material with id " + id));
+    deleteRawMaterialById(id, null);
+  }
+
+  @Transactional
+  public void deleteRawMaterialById(Long id, Set<Long> expectedVersions) {
+    RawMaterial.<RawMaterial>findByIdOptional(id)
+            .ifPresentOrElse(material -> {
+              PreconditionFailedException.requireVersion("Raw material", expectedVersions, material.version);
+              // Removed here rather than left to ON DELETE CASCADE, so Hibernate drops them from the cache too
+              List<ProductMaterial> lines = ProductMaterial.findAllByMaterialId(id);
+              lines.forEach(ProductMaterial::delete);
+              material.delete();
+              RawMaterial.flush();
+              StockMovement.record(id, Quantity.toDouble(-Quantity.toHundredths(material.stockQuantity)), StockMovementReason.DELETED);
+              catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.RAW_MATERIAL, id));
+              lines.forEach(line -> catalogChanged.fire(new CatalogChangedEvent(CatalogChangedEvent.Type.FORMULA, line.id.productId)));
+            }, () -> {
+              PreconditionFailedException.requireVersion("Raw material", expectedVersions, null);
+              Log.warn("WARNING: Attempted to delete non-existent raw material with id " + id);
+            });
   }
 
 }
@@ -0,0 +1,75 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.domain.Quantity;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.domain.StockMovement;
+import com.autoflex.inventory.domain.StockSnapshot;
+import com.autoflex.inventory.presentation.dto.StockAtDTO;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/** Reads and compacts the stock ledger; a snapshot holds exactly the movements stamped before it. */
+@ApplicationScoped
+public class StockLedgerService {
+
+  @ConfigProperty(name = "stock.ledger.compaction.lookback", defaultValue = "PT10M")
+  Duration lookback;
+
+  @Transactional
+  public StockAtDTO getStockAt(Long materialId, Instant at) {
+    StockSnapshot snapshot = StockSnapshot.findLatest(materialId, at);
+    Instant takenAt = snapshot == null ? null : snapshot.id.takenAt;
+    StockMovement.Tail tail = StockMovement.tail(materialId, takenAt, at);
+    if (snapshot == null && tail.movements() == 0) {
+      throw new NotFoundException("No stock recorded for raw material " + materialId + " at " + at);
+    }
+
+    long stock = (snapshot == null ? 0 : Quantity.toHundredths(snapshot.stockQuantity)) + Quantity.toHundredths(tail.delta());
+    return new StockAtDTO(materialId, at, Quantity.toDouble(stock), takenAt, tail.movements());
+  }
+
+  @Scheduled(every = "{stock.ledger.compaction.every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void compactPeriodically() {
+    int snapshots = compact();
+    Log.debugf("Stock ledger compacted, %d materials snapshotted", snapshots);
+  }
+
+  /** Snapshots the materials with uncovered movements, once all their rows are locked in id order. */
+  public int compact() {
+    try {
+      return QuarkusTransaction.requiringNew().call(() -> {
+        // A movement is stamped before its transaction commits, so one committed after the last run can be older than it
+        Instant last = StockSnapshot.lastTakenAt();
+        List<Long> moved = StockMovement.findMaterialIdsWithUnsnapshottedMovements(last == null ? null : last.minus(lookback));
+        if (moved.isEmpty()) return 0;
+
+        List<RawMaterial> materials = RawMaterial.lockAllByIds(moved);
+        Instant takenAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        for (RawMaterial material : materials) {
+          StockSnapshot snapshot = new StockSnapshot();
+          snapshot.id.materialId = material.id;
+          snapshot.id.takenAt = takenAt;
+          snapshot.stockQuantity = material.stockQuantity;
+          snapshot.persist();
+        }
+        StockSnapshot.flush();
+        return materials.size();
+      });
+    } catch (ConstraintViolationException e) {
+      // Another instance snapshotted one of the materials at the same instant; its snapshot holds the same stock
+      Log.debugf("Stock ledger compaction skipped: %s", e.getMessage());
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.application.exception.ConflictException;
+import com.autoflex.inventory.domain.Quantity;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.domain.StockMovement;
+import com.autoflex.inventory.domain.StockMovementReason;
+import com.autoflex.inventory.domain.StockOperation;
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.autoflex.inventory.presentation.dto.StockLevelDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Stock changes as one conditional UPDATE per call; if any material is short the whole call is a conflict. */
+@ApplicationScoped
+public class StockService {
+
+  @Inject
+  Event<CatalogChangedEvent> catalogChanged;
+
+  public StockLevelDTO consume(Long materialId, Double quantity, boolean fromReservation) {
+    return apply(fromReservation ? StockOperation.CONSUME_RESERVED : StockOperation.CONSUME,
+            new TreeMap<>(Map.of(materialId, quantity))).getFirst();
+  }
+
+  public StockLevelDTO reserve(Long materialId, Double quantity) {
+    return apply(StockOperation.RESERVE, new TreeMap<>(Map.of(materialId, quantity))).getFirst();
+  }
+
+  public StockLevelDTO release(Long materialId, Double quantity) {
+    return apply(StockOperation.RELEASE, new TreeMap<>(Map.of(materialId, quantity))).getFirst();
+  }
+
+  public List<StockLevelDTO> consumeAll(List<MaterialAmountDTO> lines, boolean fromReservation) {
+    return apply(fromReservation ? StockOperation.CONSUME_RESERVED : StockOperation.CONSUME, merge(lines));
+  }
+
+  public List<StockLevelDTO> reserveAll(List<MaterialAmountDTO> lines) {
+    return apply(StockOperation.RESERVE, merge(lines));
+  }
+
+  private List<StockLevelDTO> apply(StockOperation operation, SortedMap<Long, Double> quantities) {
+    try {
+      return QuarkusTransaction.requiringNew().call(() ->
+              applyInTransaction(operation, quantities, StockMovementReason.CONSUMPTION, null));
+    } catch (Rejected rejected) {
+      throw rejected.explain();
+    }
+  }
+
+  /** Applies the operation in the current transaction, or throws {@link Rejected} when a material cannot take it. */
+  List<StockLevelDTO> applyInTransaction(StockOperation operation, SortedMap<Long, Double> quantities,
+                                         StockMovementReason reason, Long referenceId) {
+    if (RawMaterial.applyStockOperation(operation, quantities) != quantities.size()) {
+      throw new Rejected(operation, quantities);
+    }
+    if (operation.consumesStock()) {
+      Map<Long, Double> deltas = new TreeMap<>();
+      quantities.forEach((materialId, quantity) -> deltas.put(materialId, -quantity));
+      StockMovement.record(deltas, reason, referenceId);
+    }
+    List<RawMaterial> updated = RawMaterial.findAllByIds(quantities.keySet()).stream()
+            .sorted(Comparator.comparing(material -> material.id))
+            .toList();
+    updated.forEach(material -> catalogChanged.fire(
+            CatalogChangedEvent.stock(material.id, material.availableQuantity(), material.version)));
+    return updated.stream().map(StockService::toLevel).toList();
+  }
+
+  private static RuntimeException rejection(StockOperation operation, SortedMap<Long, Double> quantities) {
+    Map<Long, RawMaterial> materials = RawMaterial.findAllByIds(quantities.keySet()).stream()
+            .collect(Collectors.toMap(material -> material.id, Function.identity()));
+    List<Long> missing = quantities.keySet().stream().filter(id -> !materials.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      return new NotFoundException("Raw materials not found: " + missing);
+    }
+
+    List<Long> insufficient = quantities.entrySet().stream()
+            .filter(line -> headroom(operation, materials.get(line.getKey())) < Quantity.toHundredths(line.getValue()))
+            .map(Map.Entry::getKey)
+            .toList();
+    String subject = operation == StockOperation.CONSUME_RESERVED || operation == StockOperation.RELEASE
+            ? "Insufficient reserved quantity" : "Insufficient available stock";
+    return new ConflictException(subject + " for raw materials: " + (insufficient.isEmpty() ? quantities.keySet() : insufficient));
+  }
+
+  // In hundredths, like the guard of the UPDATE it explains
+  private static long headroom(StockOperation operation, RawMaterial material) {
+    return switch (operation) {
+      case CONSUME, RESERVE -> Quantity.toHundredths(material.stockQuantity) - Quantity.toHundredths(material.reservedQuantity);
+      case CONSUME_RESERVED, RELEASE -> Quantity.toHundredths(material.reservedQuantity);
+    };
+  }
+
+  // Repeated materials are summed in hundredths, and the ids come out sorted
+  private static SortedMap<Long, Double> merge(List<MaterialAmountDTO> lines) {
+    SortedMap<Long, Long> hundredths = lines.stream().collect(Collectors.toMap(
+            MaterialAmountDTO::materialId, line -> Quantity.toHundredths(line.quantity()), Math::addExact, TreeMap::new));
+    SortedMap<Long, Double> quantities = new TreeMap<>();
+    hundredths.forEach((materialId, quantity) -> quantities.put(materialId, Quantity.toDouble(quantity)));
+    return quantities;
+  }
+
+  private static StockLevelDTO toLevel(RawMaterial material) {
+    return new StockLevelDTO(material.id, material.stockQuantity, material.reservedQuantity, material.availableQuantity());
+  }
+
+  /** Marks a rejected operation; {@link #explain()} works out the client error after the rollback. */
+  static final class Rejected extends RuntimeException {
+
+    private final StockOperation operation;
+    private final SortedMap<Long, Double> quantities;
+
+    Rejected(StockOperation operation, SortedMap<Long, Double> quantities) {
+      super(null, null, false, false);
+      this.operation = operation;
+      this.quantities = quantities;
+    }
+
+    // Sees the stock that made the update fail or, at worst, a later state
+    RuntimeException explain() {
+      return QuarkusTransaction.requiringNew().call(() -> rejection(operation, quantities));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.autoflex.inventory.application.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reads RFC 4180 records one at a time, skipping blank lines. */
+public class CsvRecordReader implements Closeable {
+
+  private static final int BYTE_ORDER_MARK = '\uFEFF';
+  private static final int NONE = -2;
+
+  private final Reader reader;
+  private final StringBuilder field = new StringBuilder();
+  private int peeked = NONE;
+  private boolean started;
+  private long line = 1;
+  private long recordLine;
+
+  public CsvRecordReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /** Fields of the next record, or {@code null} at the end of the input. */
+  public List<String> next() throws IOException {
+    int c = read();
+    if (!started) {
+      started = true;
+      if (c == BYTE_ORDER_MARK) c = read();
+    }
+    while (c == '\r' || c == '\n') {
+      endOfLine(c);
+      c = read();
+    }
+    if (c == -1) return null;
+
+    recordLine = line;
+    List<String> fields = new ArrayList<>();
+    boolean quoted = false;
+    boolean wasQuoted = false;
+
+    while (true) {
+      if (quoted) {
+        if (c == -1) {
+          throw new IOException("Unterminated quoted field starting on line " + recordLine);
+        }
+        if (c == '"') {
+          if (peek() == '"') {
+            read();
+            field.append('"');
+          } else {
+            quoted = false;
+          }
+        } else {
+          if (c == '\n' || (c == '\r' && peek() != '\n')) line++;
+          field.append((char) c);
+        }
+      } else if (c == ',') {
+        fields.add(value(wasQuoted));
+        wasQuoted = false;
+      } else if (c == '\r' || c == '\n' || c == -1) {
+        fields.add(value(wasQuoted));
+        if (c != -1) endOfLine(c);
+        return fields;
+      } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+        quoted = true;
+        wasQuoted = true;
+      } else {
+        field.append((char) c);
+      }
+      c = read();
+    }
+  }
+
+  /** Line of the input the last record returned by {@link #next()} started on. */
+  public long line() {
+    return recordLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private String value(boolean wasQuoted) {
+    String value = wasQuoted ? field.toString() : field.toString().trim();
+    field.setLength(0);
+    return value;
+  }
+
+  private void endOfLine(int c) throws IOException {
+    line++;
+    if (c == '\r' && peek() == '\n') read();
+  }
+
+  private int peek() throws IOException {
+    if (peeked == NONE) peeked = reader.read();
+    return peeked;
+  }
+
+  private int read() throws IOException {
+    if (peeked != NONE) {
+      int c = peeked;
+      peeked = NONE;
+      return c;
+    }
+    return reader.read();
+  }
+}
@@ -0,0 +1,24 @@
+package com.autoflex.inventory.application.transfer;
+
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** A product's formula as one exported value, in the shapes the product import reads. */
+public record FormulaColumn(List<MaterialAmountDTO> materials) {
+
+  @JsonValue
+  @Override
+  public List<MaterialAmountDTO> materials() {
+    return materials;
+  }
+
+  @Override
+  public String toString() {
+    return materials.stream()
+            .map(material -> material.materialId() + ":" + TransferWriter.plain(material.quantity()))
+            .collect(Collectors.joining(";"));
+  }
+}
@@ -0,0 +1,53 @@
+package com.autoflex.inventory.application.transfer;
+
+import jakarta.ws.rs.NotAcceptableException;
+import jakarta.ws.rs.NotSupportedException;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.List;
+
+public enum TransferFormat {
+  CSV(TransferFormat.TEXT_CSV, "csv"),
+  NDJSON(TransferFormat.APPLICATION_NDJSON, "ndjson");
+
+  public static final String TEXT_CSV = "text/csv";
+  public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  private final MediaType mediaType;
+  private final String extension;
+
+  TransferFormat(String mediaType, String extension) {
+    this.mediaType = MediaType.valueOf(mediaType);
+    this.extension = extension;
+  }
+
+  public MediaType mediaType() {
+    return mediaType;
+  }
+
+  public String extension() {
+    return extension;
+  }
+
+  public static TransferFormat of(MediaType mediaType) {
+    for (TransferFormat format : values()) {
+      if (mediaType != null && format.mediaType.isCompatible(mediaType)) {
+        return format;
+      }
+    }
+    throw new NotSupportedException("Expected " + TEXT_CSV + " or " + APPLICATION_NDJSON);
+  }
+
+  /** The first format the client accepts, in its order of preference; wildcards get CSV. */
+  public static TransferFormat negotiate(List<MediaType> acceptable) {
+    for (MediaType mediaType : acceptable) {
+      for (TransferFormat format : values()) {
+        if (format.mediaType.isCompatible(mediaType)) {
+          return format;
+        }
+      }
+    }
+    if (acceptable.isEmpty()) return CSV;
+    throw new NotAcceptableException("Expected " + TEXT_CSV + " or " + APPLICATION_NDJSON);
+  }
+}
@@ -0,0 +1,115 @@
+package com.autoflex.inventory.application.transfer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** Writes rows as CSV with a header or as NDJSON; closing leaves the output stream to its owner. */
+public abstract class TransferWriter implements Closeable {
+
+  protected final List<String> columns;
+
+  private TransferWriter(List<String> columns) {
+    this.columns = columns;
+  }
+
+  public static TransferWriter open(TransferFormat format, OutputStream output, ObjectMapper objectMapper,
+                                    List<String> columns) throws IOException {
+    return switch (format) {
+      case CSV -> new Csv(output, columns);
+      case NDJSON -> new Ndjson(output, objectMapper, columns);
+    };
+  }
+
+  public abstract void write(Object... values) throws IOException;
+
+  public abstract void flush() throws IOException;
+
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+
+  private static final class Csv extends TransferWriter {
+    private final Writer writer;
+
+    Csv(OutputStream output, List<String> columns) throws IOException {
+      super(columns);
+      this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+      write(columns.toArray());
+    }
+
+    @Override
+    public void write(Object... values) throws IOException {
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) writer.write(',');
+        writer.write(escape(text(values[i])));
+      }
+      writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+
+    private static String text(Object value) {
+      if (value == null) return "";
+      if (value instanceof BigDecimal decimal) return decimal.toPlainString();
+      if (value instanceof Double number) return plain(number);
+      return value.toString();
+    }
+
+    private static String escape(String text) {
+      for (int i = 0; i < text.length(); i++) {
+        char c = text.charAt(i);
+        if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+          return '"' + text.replace("\"", "\"\"") + '"';
+        }
+      }
+      return text;
+    }
+  }
+
+  private static final class Ndjson extends TransferWriter {
+    private final JsonGenerator generator;
+
+    Ndjson(OutputStream output, ObjectMapper objectMapper, List<String> columns) throws IOException {
+      super(columns);
+      // Rows are separated by line breaks only, not by Jackson's default space between root values
+      this.generator = objectMapper.getFactory().createGenerator(output)
+              .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+              .setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(Object... values) throws IOException {
+      generator.writeStartObject();
+      for (int i = 0; i < values.length; i++) {
+        generator.writeFieldName(columns.get(i));
+        generator.writeObject(values[i]);
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+      generator.flush();
+    }
+  }
+
+  /** Renders a quantity without a trailing {@code .0}, so it reads back exactly as entered. */
+  public static String plain(Double quantity) {
+    return BigDecimal.valueOf(quantity).stripTrailingZeros().toPlainString();
+  }
+}
@@ -0,0 +1,20 @@
+package com.autoflex.inventory.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+/** Single row serializing component graph changes, since two additions sharing no product can still close a cycle. */
+@Entity
+@Table(name = "bom_lock")
+public class BomLock extends PanacheEntityBase {
+
+  private static final Long ID = 1L;
+
+  @Id
+  public Long id;
+
+  /** Held until the current transaction ends. */
+  public static void acquire() {
+    getEntityManager().find(BomLock.class, ID, LockModeType.PESSIMISTIC_WRITE);
+  }
+}
@@ -0,0 +1,44 @@
+package com.autoflex.inventory.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/** Single row counting committed catalog writes across instances, changed only by bulk updates. */
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion extends PanacheEntityBase {
+
+  private static final Long ID = 1L;
+
+  @Id
+  public Long id;
+
+  @Column(name = "version", nullable = false)
+  public Long version;
+
+  @Column(name = "changed_at", nullable = false)
+  public Instant changedAt;
+
+  /** Moves the counter on in the current transaction, which holds the row lock until it ends. */
+  public static Stamp bump(Instant now) {
+    getEntityManager()
+            .createQuery("update CatalogVersion v set v.version = v.version + 1, v.changedAt = :now where v.id = :id")
+            .setParameter("now", now)
+            .setParameter("id", ID)
+            .executeUpdate();
+    return current();
+  }
+
+  public static Stamp current() {
+    Object[] row = getEntityManager()
+            .createQuery("select v.version, v.changedAt from CatalogVersion v where v.id = :id", Object[].class)
+            .setParameter("id", ID)
+            .getSingleResult();
+    return new Stamp((Long) row[0], (Instant) row[1]);
+  }
+
+  public record Stamp(long version, Instant changedAt) {
+  }
+}
@@ -0,0 +1,12 @@
+package com.autoflex.inventory.domain;
+
+import java.math.BigDecimal;
+
+public record FormulaLine(
+        Long productId,
+        String productName,
+        BigDecimal price,
+        Long materialId,
+        Double requiredQuantity
+) {
+}
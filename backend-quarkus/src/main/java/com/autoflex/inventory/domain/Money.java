@@ -0,0 +1,19 @@
+package com.autoflex.inventory.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/** Prices as whole cents, the precision of the NUMBER(19,2) price column. */
+public final class Money {
+
+  private Money() {
+  }
+
+  public static long toCents(BigDecimal amount) {
+    return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal fromCents(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+}
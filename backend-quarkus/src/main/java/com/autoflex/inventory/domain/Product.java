@@ -2,32 +2,78 @@ package com.autoflex.inventory.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.HibernateHints;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
+@Cacheable
 @Table(name = "products")
 public class Product extends PanacheEntityBase {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
   public Long id;
   public String name;
   @Column(columnDefinition = "NUMBER(19,2)")
   public BigDecimal price;
 
+  // Also forced up when the formula changes, so it versions the product together with its materials
+  @Version
+  public Long version;
+
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
   public List<ProductMaterial> materials = new ArrayList<>();
 
   public static Product findByIdWithMaterials(Long id) {
-    return find("from Product p left join fetch p.materials m left join fetch m.rawMaterial where p.id = ?1", id).firstResult();
+    return find("from Product p left join fetch p.materials m left join fetch m.rawMaterial where p.id = ?1", id)
+            .withHint(HibernateHints.HINT_CACHEABLE, true)
+            .firstResult();
   }
 
   public static List<Product> listAllWithMaterials() {
     return find("select distinct p from Product p " +
             "left join fetch p.materials m " +
             "left join fetch m.rawMaterial " +
-            "order by p.price desc").list();
+            "order by p.price desc, p.id")
+            .withHint(HibernateHints.HINT_CACHEABLE, true)
+            .list();
+  }
+
+  public static List<Long> findPageIds(String name, BigDecimal afterPrice, Long afterId, int limit) {
+    List<String> conditions = new ArrayList<>();
+    Map<String, Object> params = new HashMap<>();
+    if (name != null) {
+      conditions.add("lower(p.name) like :name");
+      params.put("name", "%" + name.toLowerCase() + "%");
+    }
+    if (afterId != null) {
+      conditions.add("(p.price < :price or (p.price = :price and p.id > :id))");
+      params.put("price", afterPrice);
+      params.put("id", afterId);
+    }
+
+    String where = conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    TypedQuery<Long> query = getEntityManager()
+            .createQuery("select p.id from Product p" + where + " order by p.price desc, p.id", Long.class)
+            .setMaxResults(limit);
+    params.forEach(query::setParameter);
+    return query.getResultList();
+  }
+
+  public static List<Product> findAllWithMaterialsByIds(Collection<Long> ids) {
+    return find("select distinct p from Product p " +
+            "left join fetch p.materials m " +
+            "left join fetch m.rawMaterial " +
+            "where p.id in ?1 " +
+            "order by p.price desc, p.id", ids).list();
   }
 }
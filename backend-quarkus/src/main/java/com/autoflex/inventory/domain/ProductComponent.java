@@ -0,0 +1,55 @@
+package com.autoflex.inventory.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.util.Collection;
+import java.util.List;
+
+@Entity
+@Table(name = "product_components")
+public class ProductComponent extends PanacheEntityBase {
+
+  @EmbeddedId
+  @JsonIgnore
+  public ProductComponentId id = new ProductComponentId();
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @MapsId("assemblyId")
+  @JoinColumn(name = "assembly_id")
+  @JsonIgnore
+  public Product assembly;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @MapsId("componentId")
+  @JoinColumn(name = "component_id")
+  @JsonIgnore
+  public Product component;
+
+  @Column(name = "required_quantity", columnDefinition = "NUMBER(19,2)")
+  public Double requiredQuantity;
+
+  public static List<ProductComponent> findAllByAssemblyId(Long assemblyId) {
+    return find("from ProductComponent pc join fetch pc.component where pc.assembly.id = ?1 order by pc.component.id", assemblyId).list();
+  }
+
+  public static List<ProductComponent> findAllByAssemblyIds(Collection<Long> assemblyIds) {
+    return list("id.assemblyId in ?1", assemblyIds);
+  }
+
+  public static List<ProductComponent> listAllComponents() {
+    return list("order by id.assemblyId, id.componentId");
+  }
+
+  public static List<Long> findComponentIds(Collection<Long> assemblyIds) {
+    return getEntityManager()
+            .createQuery("select distinct pc.id.componentId from ProductComponent pc where pc.id.assemblyId in :ids", Long.class)
+            .setParameter("ids", assemblyIds)
+            .getResultList();
+  }
+
+  public static void removeAssociation(Long assemblyId, Long componentId) {
+    delete("id.assemblyId = ?1 and id.componentId = ?2", assemblyId, componentId);
+  }
+}
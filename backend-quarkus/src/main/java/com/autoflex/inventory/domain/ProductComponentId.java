@@ -0,0 +1,28 @@
+package com.autoflex.inventory.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class ProductComponentId implements Serializable {
+  @Column(name = "assembly_id")
+  public Long assemblyId;
+
+  @Column(name = "component_id")
+  public Long componentId;
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == null || getClass() != o.getClass()) return false;
+    ProductComponentId that = (ProductComponentId) o;
+    return Objects.equals(assemblyId, that.assemblyId) && Objects.equals(componentId, that.componentId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(assemblyId, componentId);
+  }
+}
@@ -3,10 +3,14 @@ package com.autoflex.inventory.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Entity
+@Cacheable
 @Table(name = "product_materials")
 public class ProductMaterial extends PanacheEntityBase {
 
@@ -32,6 +36,23 @@ public class ProductMaterial extends PanacheEntityBase {
     return find("from ProductMaterial pm left join fetch pm.rawMaterial where pm.product.id = ?1", productId).list();
   }
 
+  public static List<ProductMaterial> findAllByProductIds(Collection<Long> productIds) {
+    return list("id.productId in ?1", productIds);
+  }
+
+  public static List<ProductMaterial> findAllByMaterialId(Long materialId) {
+    return list("id.materialId", materialId);
+  }
+
+  public static Stream<FormulaLine> streamFormulaLines(int fetchSize) {
+    return getEntityManager()
+            .createQuery("select new com.autoflex.inventory.domain.FormulaLine(p.id, p.name, p.price, pm.id.materialId, pm.requiredQuantity) " +
+                    "from Product p left join p.materials pm " +
+                    "order by p.price desc, p.id", FormulaLine.class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .getResultStream();
+  }
+
   public static void removeAssociation(Long productId, Long materialId) {
     delete("product.id = ?1 and rawMaterial.id = ?2", productId, materialId);
   }
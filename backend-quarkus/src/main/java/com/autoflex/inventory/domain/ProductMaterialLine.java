@@ -0,0 +1,12 @@
+package com.autoflex.inventory.domain;
+
+public record ProductMaterialLine(
+        Long productId,
+        Long materialId,
+        String materialName,
+        Double stockQuantity,
+        Double reservedQuantity,
+        Long materialVersion,
+        Double requiredQuantity
+) {
+}
@@ -0,0 +1,38 @@
+package com.autoflex.inventory.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "production_orders")
+public class ProductionOrder extends PanacheEntityBase {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "production_orders_seq")
+  @SequenceGenerator(name = "production_orders_seq", sequenceName = "production_orders_seq", allocationSize = 50)
+  public Long id;
+
+  @Column(name = "created_at")
+  public Instant createdAt;
+
+  @Column(name = "total_value", columnDefinition = "NUMBER(19,2)")
+  public BigDecimal totalValue;
+
+  @ElementCollection
+  @CollectionTable(name = "production_order_items", joinColumns = @JoinColumn(name = "order_id"))
+  @OrderBy("productId")
+  public List<ProductionOrderItem> items = new ArrayList<>();
+
+  @ElementCollection
+  @CollectionTable(name = "production_order_materials", joinColumns = @JoinColumn(name = "order_id"))
+  @OrderBy("materialId")
+  public List<ProductionOrderMaterial> materials = new ArrayList<>();
+
+  public static ProductionOrder findByIdWithItems(Long id) {
+    return find("from ProductionOrder o left join fetch o.items where o.id = ?1", id).firstResult();
+  }
+}
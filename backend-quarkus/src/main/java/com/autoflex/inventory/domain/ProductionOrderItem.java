@@ -0,0 +1,21 @@
+package com.autoflex.inventory.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.math.BigDecimal;
+
+/** Product line of an order, copied at order time so it survives price changes and deleted products. */
+@Embeddable
+public class ProductionOrderItem {
+  @Column(name = "product_id")
+  public Long productId;
+
+  @Column(name = "product_name")
+  public String productName;
+
+  public Integer units;
+
+  @Column(name = "unit_price", columnDefinition = "NUMBER(19,2)")
+  public BigDecimal unitPrice;
+}
@@ -0,0 +1,14 @@
+package com.autoflex.inventory.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/** Raw material drawn from stock by a production order, with nested components already flattened. */
+@Embeddable
+public class ProductionOrderMaterial {
+  @Column(name = "material_id")
+  public Long materialId;
+
+  @Column(columnDefinition = "NUMBER(19,2)")
+  public Double quantity;
+}
@@ -0,0 +1,37 @@
+package com.autoflex.inventory.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/** Fixed-point quantities in hundredths, the precision of the NUMBER(19,2) columns, so unit counts divide exactly. */
+public final class Quantity {
+
+  public static final long SCALE = 100;
+
+  private Quantity() {
+  }
+
+  public static long toHundredths(Double quantity) {
+    if (quantity == null) return 0;
+    return BigDecimal.valueOf(quantity).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  public static double toDouble(long hundredths) {
+    return BigDecimal.valueOf(hundredths, 2).doubleValue();
+  }
+
+  /** The quantity as it is stored, for binding to a NUMBER(19,2) column. */
+  public static BigDecimal toDecimal(Double quantity) {
+    return BigDecimal.valueOf(toHundredths(quantity), 2);
+  }
+
+  /** Hundredths for {@code count} hundredths at {@code perUnit} each, rounded up. */
+  public static long multiply(long perUnit, long count) {
+    return Math.ceilDiv(Math.multiplyExact(perUnit, count), SCALE);
+  }
+
+  /** Whole units that {@code available} hundredths cover at {@code required} per unit. */
+  public static long units(long available, long required) {
+    return available <= 0 ? 0 : available / required;
+  }
+}
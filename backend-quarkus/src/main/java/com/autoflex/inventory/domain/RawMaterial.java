@@ -1,13 +1,27 @@
 package com.autoflex.inventory.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import io.quarkus.panache.common.Sort;
 import jakarta.persistence.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
 @Entity
+@Cacheable
 @Table(name = "raw_materials")
 public class RawMaterial extends PanacheEntityBase {
+
+  // Oracle rejects IN lists longer than 1000 expressions (ORA-01795)
+  private static final int MAX_IN_LIST_SIZE = 1000;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "raw_materials_seq")
+  @SequenceGenerator(name = "raw_materials_seq", sequenceName = "raw_materials_seq", allocationSize = 50)
   public Long id;
 
   public String name;
@@ -15,7 +29,92 @@ public class RawMaterial extends PanacheEntityBase {
   @Column(name = "stock_quantity", columnDefinition = "NUMBER(19,2)")
   public Double stockQuantity;
 
+  @Column(name = "reserved_quantity", columnDefinition = "NUMBER(19,2)")
+  public Double reservedQuantity = 0.0;
+
+  @Version
+  public Long version;
+
+  /** Stock not held by reservations, the quantity production can draw on. */
+  public double availableQuantity() {
+    return Quantity.toDouble(Math.max(0, Quantity.toHundredths(stockQuantity) - Quantity.toHundredths(reservedQuantity)));
+  }
+
   public static RawMaterial findByName(String name) {
     return find("name", name).firstResult();
   }
-}
\ No newline at end of file
+
+  public static List<RawMaterial> findAllByIds(Collection<Long> ids) {
+    List<Long> distinct = ids.stream().distinct().toList();
+    List<RawMaterial> materials = new ArrayList<>(distinct.size());
+    for (int from = 0; from < distinct.size(); from += MAX_IN_LIST_SIZE) {
+      materials.addAll(list("id in ?1", distinct.subList(from, Math.min(from + MAX_IN_LIST_SIZE, distinct.size()))));
+    }
+    return materials;
+  }
+
+  /** Reads the materials with their rows locked until the transaction ends, taking the locks in id order. */
+  public static List<RawMaterial> lockAllByIds(Collection<Long> ids) {
+    List<Long> sorted = ids.stream().distinct().sorted().toList();
+    List<RawMaterial> materials = new ArrayList<>(sorted.size());
+    for (int from = 0; from < sorted.size(); from += MAX_IN_LIST_SIZE) {
+      List<Long> chunk = sorted.subList(from, Math.min(from + MAX_IN_LIST_SIZE, sorted.size()));
+      materials.addAll(RawMaterial.<RawMaterial>find("id in ?1 order by id", chunk)
+              .withLock(LockModeType.PESSIMISTIC_WRITE)
+              .list());
+    }
+    return materials;
+  }
+
+  /** Applies the operation with one versioned conditional UPDATE; fewer rows changed than materials means roll back. */
+  public static int applyStockOperation(StockOperation operation, SortedMap<Long, Double> quantities) {
+    if (quantities.size() == 1) {
+      Map.Entry<Long, Double> line = quantities.firstEntry();
+      return update("update versioned RawMaterial set " + operation.assignment(":quantity") +
+                      " where id = :id and " + operation.guard(":quantity"),
+              Map.of("id", line.getKey(), "quantity", Quantity.toDecimal(line.getValue())));
+    }
+
+    // A single UPDATE locks its rows in plan order, so calls sharing materials take the locks in id order first
+    lockIdsInOrder(quantities.keySet());
+
+    // Parameters only appear inside the CASE, so they are cast for databases that cannot infer their type
+    StringBuilder quantity = new StringBuilder("case id");
+    Map<String, Object> params = new HashMap<>();
+    int index = 0;
+    for (Map.Entry<Long, Double> line : quantities.entrySet()) {
+      quantity.append(" when :id").append(index).append(" then cast(:quantity").append(index).append(" as BigDecimal)");
+      params.put("id" + index, line.getKey());
+      params.put("quantity" + index, Quantity.toDecimal(line.getValue()));
+      index++;
+    }
+    quantity.append(" end");
+    params.put("ids", quantities.keySet());
+    return update("update versioned RawMaterial set " + operation.assignment(quantity.toString()) +
+            " where id in :ids and " + operation.guard(quantity.toString()), params);
+  }
+
+  private static void lockIdsInOrder(Collection<Long> sortedIds) {
+    List<Long> ids = List.copyOf(sortedIds);
+    for (int from = 0; from < ids.size(); from += MAX_IN_LIST_SIZE) {
+      getEntityManager().createQuery("select id from RawMaterial where id in :ids order by id", Long.class)
+              .setParameter("ids", ids.subList(from, Math.min(from + MAX_IN_LIST_SIZE, ids.size())))
+              .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+              .getResultList();
+    }
+  }
+
+  public static List<RawMaterial> findPage(String name, Long afterId, int limit) {
+    List<String> conditions = new ArrayList<>();
+    Map<String, Object> params = new HashMap<>();
+    if (name != null) {
+      conditions.add("lower(name) like :name");
+      params.put("name", "%" + name.toLowerCase() + "%");
+    }
+    if (afterId != null) {
+      conditions.add("id > :id");
+      params.put("id", afterId);
+    }
+    return find(String.join(" and ", conditions), Sort.by("id"), params).range(0, limit - 1).list();
+  }
+}
@@ -0,0 +1,79 @@
+package com.autoflex.inventory.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/** Append-only ledger of stock changes, inserted in the same persistence context as the change they record. */
+@Entity
+@Table(name = "stock_movements")
+public class StockMovement extends PanacheEntityBase {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+  @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
+  public Long id;
+
+  @Column(name = "material_id")
+  public Long materialId;
+
+  @Column(columnDefinition = "NUMBER(19,2)")
+  public Double delta;
+
+  @Enumerated(EnumType.STRING)
+  public StockMovementReason reason;
+
+  @Column(name = "reference_id")
+  public Long referenceId;
+
+  @Column(name = "created_at")
+  public Instant createdAt;
+
+  public static void record(Long materialId, double delta, StockMovementReason reason) {
+    record(Map.of(materialId, delta), reason, null);
+  }
+
+  /** Records one movement per non-zero delta, all with the same timestamp. */
+  public static void record(Map<Long, Double> deltas, StockMovementReason reason, Long referenceId) {
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    deltas.forEach((materialId, delta) -> {
+      if (delta == 0) return;
+      StockMovement movement = new StockMovement();
+      movement.materialId = materialId;
+      movement.delta = delta;
+      movement.reason = reason;
+      movement.referenceId = referenceId;
+      movement.createdAt = now;
+      movement.persist();
+    });
+  }
+
+  /** Net change and number of movements of a material in {@code (after, until]}, or from the start when after is null. */
+  public static Tail tail(Long materialId, Instant after, Instant until) {
+    String range = after == null ? "" : " and m.createdAt > :after";
+    TypedQuery<Object[]> query = getEntityManager()
+            .createQuery("select coalesce(sum(m.delta), 0), count(m) from StockMovement m " +
+                    "where m.materialId = :materialId and m.createdAt <= :until" + range, Object[].class)
+            .setParameter("materialId", materialId)
+            .setParameter("until", until);
+    if (after != null) query.setParameter("after", after);
+    Object[] row = query.getSingleResult();
+    return new Tail(((Number) row[0]).doubleValue(), ((Number) row[1]).longValue());
+  }
+
+  /** Materials with a movement after {@code since}, or ever when null, that no later snapshot covers yet. */
+  public static List<Long> findMaterialIdsWithUnsnapshottedMovements(Instant since) {
+    String range = since == null ? "" : " and m.createdAt > :since";
+    TypedQuery<Long> query = getEntityManager().createQuery("select distinct m.materialId from StockMovement m " +
+            "where not exists (select 1 from StockSnapshot s where s.id.materialId = m.materialId and s.id.takenAt >= m.createdAt)" +
+            range, Long.class);
+    if (since != null) query.setParameter("since", since);
+    return query.getResultList();
+  }
+
+  public record Tail(double delta, long movements) {
+  }
+}
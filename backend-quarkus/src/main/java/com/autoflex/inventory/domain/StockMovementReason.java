@@ -0,0 +1,11 @@
+package com.autoflex.inventory.domain;
+
+/** Why a raw material's stock changed, as recorded in the stock ledger. */
+public enum StockMovementReason {
+  CREATED,
+  IMPORTED,
+  ADJUSTMENT,
+  CONSUMPTION,
+  PRODUCTION_ORDER,
+  DELETED
+}
@@ -0,0 +1,30 @@
+package com.autoflex.inventory.domain;
+
+/** Stock changes applied as a single conditional UPDATE whose guard leaves an overdrawn row untouched. */
+public enum StockOperation {
+  CONSUME("stockQuantity = stockQuantity - %1$s", "stockQuantity - reservedQuantity >= %1$s"),
+  CONSUME_RESERVED("stockQuantity = stockQuantity - %1$s, reservedQuantity = reservedQuantity - %1$s", "reservedQuantity >= %1$s"),
+  RESERVE("reservedQuantity = reservedQuantity + %1$s", "stockQuantity - reservedQuantity >= %1$s"),
+  RELEASE("reservedQuantity = reservedQuantity - %1$s", "reservedQuantity >= %1$s");
+
+  private final String assignment;
+  private final String guard;
+
+  StockOperation(String assignment, String guard) {
+    this.assignment = assignment;
+    this.guard = guard;
+  }
+
+  /** Whether the operation takes stock away, as opposed to only moving it in or out of reservations. */
+  public boolean consumesStock() {
+    return this == CONSUME || this == CONSUME_RESERVED;
+  }
+
+  String assignment(String quantity) {
+    return assignment.formatted(quantity);
+  }
+
+  String guard(String quantity) {
+    return guard.formatted(quantity);
+  }
+}
@@ -0,0 +1,28 @@
+package com.autoflex.inventory.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/** Stock of a raw material once every movement up to {@code takenAt} is applied. */
+@Entity
+@Table(name = "stock_snapshots")
+public class StockSnapshot extends PanacheEntityBase {
+
+  @EmbeddedId
+  public StockSnapshotId id = new StockSnapshotId();
+
+  @Column(name = "stock_quantity", columnDefinition = "NUMBER(19,2)")
+  public Double stockQuantity;
+
+  public static StockSnapshot findLatest(Long materialId, Instant at) {
+    return find("id.materialId = ?1 and id.takenAt <= ?2 order by id.takenAt desc", materialId, at).firstResult();
+  }
+
+  public static Instant lastTakenAt() {
+    return getEntityManager()
+            .createQuery("select max(s.id.takenAt) from StockSnapshot s", Instant.class)
+            .getSingleResult();
+  }
+}
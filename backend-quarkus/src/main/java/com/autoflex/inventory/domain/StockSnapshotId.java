@@ -0,0 +1,29 @@
+package com.autoflex.inventory.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+@Embeddable
+public class StockSnapshotId implements Serializable {
+  @Column(name = "material_id")
+  public Long materialId;
+
+  @Column(name = "taken_at")
+  public Instant takenAt;
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == null || getClass() != o.getClass()) return false;
+    StockSnapshotId that = (StockSnapshotId) o;
+    return Objects.equals(materialId, that.materialId) && Objects.equals(takenAt, that.takenAt);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(materialId, takenAt);
+  }
+}
@@ -0,0 +1,33 @@
+package com.autoflex.inventory.infrastructure.handlers;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.net.URI;
+
+@Provider
+public class BadRequestExceptionHandler implements ExceptionMapper<BadRequestException> {
+
+  @Context
+  UriInfo uriInfo;
+
+  @Override
+  public Response toResponse(BadRequestException exception) {
+    ProblemDetail problem = new ProblemDetail(
+            URI.create("https://autoflex.com/errors/bad-request"),
+            "Bad Request",
+            Response.Status.BAD_REQUEST.getStatusCode(),
+            exception.getMessage(),
+            uriInfo.getAbsolutePath(),
+            null
+    );
+
+    return Response.status(Response.Status.BAD_REQUEST)
+            .type("application/problem+json")
+            .entity(problem)
+            .build();
+  }
+}
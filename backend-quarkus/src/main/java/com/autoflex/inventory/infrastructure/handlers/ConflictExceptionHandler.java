@@ -0,0 +1,33 @@
+package com.autoflex.inventory.infrastructure.handlers;
+
+import com.autoflex.inventory.application.exception.ConflictException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.net.URI;
+
+@Provider
+public class ConflictExceptionHandler implements ExceptionMapper<ConflictException> {
+
+  @Context
+  UriInfo uriInfo;
+
+  @Override
+  public Response toResponse(ConflictException exception) {
+    ProblemDetail problem = new ProblemDetail(
+            URI.create("https://autoflex.com/errors/conflict"),
+            "Conflict",
+            Response.Status.CONFLICT.getStatusCode(),
+            exception.getMessage(),
+            uriInfo.getAbsolutePath(),
+            null
+    );
+
+    return Response.status(Response.Status.CONFLICT)
+            .type("application/problem+json")
+            .entity(problem)
+            .build();
+  }
+}
@@ -0,0 +1,34 @@
+package com.autoflex.inventory.infrastructure.handlers;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.net.URI;
+
+/** Another transaction changed the row between this request's read and its write; reported like any conflict. */
+@Provider
+public class OptimisticLockExceptionHandler implements ExceptionMapper<OptimisticLockException> {
+
+  @Context
+  UriInfo uriInfo;
+
+  @Override
+  public Response toResponse(OptimisticLockException exception) {
+    ProblemDetail problem = new ProblemDetail(
+            URI.create("https://autoflex.com/errors/conflict"),
+            "Conflict",
+            Response.Status.CONFLICT.getStatusCode(),
+            "The resource was modified concurrently, reload it and try again",
+            uriInfo.getAbsolutePath(),
+            null
+    );
+
+    return Response.status(Response.Status.CONFLICT)
+            .type("application/problem+json")
+            .entity(problem)
+            .build();
+  }
+}
@@ -0,0 +1,33 @@
+package com.autoflex.inventory.infrastructure.handlers;
+
+import com.autoflex.inventory.application.exception.PreconditionFailedException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.net.URI;
+
+@Provider
+public class PreconditionFailedExceptionHandler implements ExceptionMapper<PreconditionFailedException> {
+
+  @Context
+  UriInfo uriInfo;
+
+  @Override
+  public Response toResponse(PreconditionFailedException exception) {
+    ProblemDetail problem = new ProblemDetail(
+            URI.create("https://autoflex.com/errors/precondition-failed"),
+            "Precondition Failed",
+            Response.Status.PRECONDITION_FAILED.getStatusCode(),
+            exception.getMessage(),
+            uriInfo.getAbsolutePath(),
+            null
+    );
+
+    return Response.status(Response.Status.PRECONDITION_FAILED)
+            .type("application/problem+json")
+            .entity(problem)
+            .build();
+  }
+}
@@ -0,0 +1,38 @@
+package com.autoflex.inventory.infrastructure.handlers;
+
+import io.quarkus.arc.ArcUndeclaredThrowableException;
+import jakarta.transaction.RollbackException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import org.hibernate.StaleStateException;
+import org.jboss.resteasy.reactive.server.UnwrapException;
+import java.net.URI;
+
+/** Reports a version check that failed at commit, after the resource method returned, as a conflict. */
+@Provider
+@UnwrapException({ArcUndeclaredThrowableException.class, RollbackException.class})
+public class StaleStateExceptionHandler implements ExceptionMapper<StaleStateException> {
+
+  @Context
+  UriInfo uriInfo;
+
+  @Override
+  public Response toResponse(StaleStateException exception) {
+    ProblemDetail problem = new ProblemDetail(
+            URI.create("https://autoflex.com/errors/conflict"),
+            "Conflict",
+            Response.Status.CONFLICT.getStatusCode(),
+            "The resource was modified concurrently, reload it and try again",
+            uriInfo.getAbsolutePath(),
+            null
+    );
+
+    return Response.status(Response.Status.CONFLICT)
+            .type("application/problem+json")
+            .entity(problem)
+            .build();
+  }
+}
@@ -0,0 +1,242 @@
+package com.autoflex.inventory.infrastructure.perf;
+
+import com.autoflex.inventory.application.cache.CatalogCacheRegions;
+import com.autoflex.inventory.application.production.BomSnapshotHolder;
+import io.quarkus.arc.profile.IfBuildProfile;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/** Seeds the {@code perf} profile with a deterministic Zipf/Pareto-shaped catalog through plain JDBC batches. */
+@ApplicationScoped
+@IfBuildProfile("perf")
+public class SyntheticCatalogSeeder {
+
+  static final String NAME_PREFIX = "Synthetic ";
+
+  @ConfigProperty(name = "perf.catalog.products", defaultValue = "100000")
+  int productCount;
+
+  @ConfigProperty(name = "perf.catalog.materials", defaultValue = "5000")
+  int materialCount;
+
+  @ConfigProperty(name = "perf.catalog.min-materials-per-product", defaultValue = "2")
+  int minFanOut;
+
+  @ConfigProperty(name = "perf.catalog.max-materials-per-product", defaultValue = "200")
+  int maxFanOut;
+
+  @ConfigProperty(name = "perf.catalog.fan-out-exponent", defaultValue = "1.5")
+  double fanOutExponent;
+
+  @ConfigProperty(name = "perf.catalog.popularity-exponent", defaultValue = "1.1")
+  double popularityExponent;
+
+  @ConfigProperty(name = "perf.catalog.seed", defaultValue = "42")
+  long seed;
+
+  @ConfigProperty(name = "perf.catalog.batch-size", defaultValue = "1000")
+  int batchSize;
+
+  @Inject
+  DataSource dataSource;
+
+  @Inject
+  BomSnapshotHolder snapshotHolder;
+
+  @Inject
+  CatalogCacheRegions cacheRegions;
+
+  void onStart(@Observes StartupEvent event) throws SQLException {
+    if (maxFanOut > materialCount || minFanOut < 1 || minFanOut > maxFanOut) {
+      throw new IllegalStateException("perf.catalog materials per product must be between 1 and perf.catalog.materials");
+    }
+
+    try (Connection connection = dataSource.getConnection()) {
+      if (alreadySeeded(connection)) {
+        Log.info("Synthetic catalog already present, skipping generation");
+        return;
+      }
+
+      long started = System.nanoTime();
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        long firstMaterialId = nextId(connection, "raw_materials");
+        long firstProductId = nextId(connection, "products");
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] popularity = cumulativePopularity();
+
+        insertMaterials(connection, random.split(), popularity, firstMaterialId);
+        long lines = insertProducts(connection, random.split(), popularity, firstProductId, firstMaterialId);
+        insertOpeningSnapshots(connection, firstMaterialId);
+        restartSequence(connection, "raw_materials_seq", firstMaterialId + materialCount);
+        restartSequence(connection, "products_seq", firstProductId + productCount);
+        connection.commit();
+
+        Log.infof("Seeded %d products, %d raw materials and %d formula lines in %d ms",
+                productCount, materialCount, lines, (System.nanoTime() - started) / 1_000_000);
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+    cacheRegions.evictAll();
+    snapshotHolder.invalidate();
+  }
+
+  // Stock is sized from the expected number of formulas using each material, so plans stay non-trivial
+  private void insertMaterials(Connection connection, SplittableRandom random, double[] popularity,
+                               long firstMaterialId) throws SQLException {
+    double meanFanOut = meanFanOut();
+    try (PreparedStatement insert = connection.prepareStatement(
+            "INSERT INTO raw_materials (id, name, stock_quantity) VALUES (?, ?, ?)")) {
+      int pending = 0;
+      for (int m = 0; m < materialCount; m++) {
+        double share = popularity[m] - (m == 0 ? 0 : popularity[m - 1]);
+        double expectedUses = productCount * meanFanOut * share;
+        insert.setLong(1, firstMaterialId + m);
+        insert.setString(2, NAME_PREFIX + "Material " + (m + 1));
+        insert.setBigDecimal(3, BigDecimal.valueOf(Math.round(expectedUses * random.nextDouble(50, 2_000)), 2));
+        insert.addBatch();
+        pending = flush(insert, pending + 1);
+      }
+      insert.executeBatch();
+    }
+  }
+
+  private long insertProducts(Connection connection, SplittableRandom random, double[] popularity,
+                              long firstProductId, long firstMaterialId) throws SQLException {
+    long lines = 0;
+    int[] picked = new int[maxFanOut];
+
+    try (PreparedStatement products = connection.prepareStatement(
+            "INSERT INTO products (id, name, price) VALUES (?, ?, ?)");
+         PreparedStatement formulas = connection.prepareStatement(
+                 "INSERT INTO product_materials (product_id, material_id, required_quantity) VALUES (?, ?, ?)")) {
+      int pending = 0;
+      for (int p = 0; p < productCount; p++) {
+        long productId = firstProductId + p;
+        products.setLong(1, productId);
+        products.setString(2, NAME_PREFIX + "Product " + (p + 1));
+        // Log-uniform between 1.00 and 100,000.00
+        products.setBigDecimal(3, BigDecimal.valueOf(Math.round(Math.pow(10, random.nextDouble(2, 7))), 2));
+        products.addBatch();
+
+        int fanOut = fanOut(random);
+        for (int i = 0; i < fanOut; i++) {
+          picked[i] = pickDistinct(random, popularity, picked, i);
+          formulas.setLong(1, productId);
+          formulas.setLong(2, firstMaterialId + picked[i]);
+          formulas.setBigDecimal(3, BigDecimal.valueOf(random.nextLong(10, 1_001), 2));
+          formulas.addBatch();
+        }
+        lines += fanOut;
+
+        // Products are always flushed before the formula lines referencing them
+        pending += fanOut + 1;
+        if (pending >= batchSize) {
+          products.executeBatch();
+          formulas.executeBatch();
+          pending = 0;
+        }
+      }
+      products.executeBatch();
+      formulas.executeBatch();
+    }
+    return lines;
+  }
+
+  private int flush(PreparedStatement statement, int pending) throws SQLException {
+    if (pending < batchSize) return pending;
+    statement.executeBatch();
+    return 0;
+  }
+
+  // Pareto-distributed fan-out: P(fanOut >= k) = (minFanOut / k) ^ exponent, truncated at maxFanOut
+  private int fanOut(SplittableRandom random) {
+    double uniform = 1.0 - random.nextDouble();
+    double draw = minFanOut / Math.pow(uniform, 1.0 / fanOutExponent);
+    return (int) Math.min(maxFanOut, Math.floor(draw));
+  }
+
+  private double meanFanOut() {
+    if (fanOutExponent <= 1) return (minFanOut + maxFanOut) / 2.0;
+    return Math.min(maxFanOut, minFanOut * fanOutExponent / (fanOutExponent - 1));
+  }
+
+  // Zipf weights 1 / rank^s, normalized and accumulated for inverse-transform sampling
+  private double[] cumulativePopularity() {
+    double[] cumulative = new double[materialCount];
+    double total = 0;
+    for (int m = 0; m < materialCount; m++) {
+      total += 1.0 / Math.pow(m + 1, popularityExponent);
+      cumulative[m] = total;
+    }
+    for (int m = 0; m < materialCount; m++) {
+      cumulative[m] /= total;
+    }
+    return cumulative;
+  }
+
+  private int pickDistinct(SplittableRandom random, double[] popularity, int[] picked, int count) {
+    while (true) {
+      int index = Arrays.binarySearch(popularity, random.nextDouble());
+      int material = Math.min(index >= 0 ? index : -index - 1, materialCount - 1);
+      boolean duplicate = false;
+      for (int i = 0; i < count && !duplicate; i++) {
+        duplicate = picked[i] == material;
+      }
+      if (!duplicate) return material;
+    }
+  }
+
+  private static boolean alreadySeeded(Connection connection) throws SQLException {
+    try (PreparedStatement query = connection.prepareStatement("SELECT COUNT(*) FROM products WHERE name LIKE ?")) {
+      query.setString(1, NAME_PREFIX + "%");
+      try (ResultSet result = query.executeQuery()) {
+        return result.next() && result.getLong(1) > 0;
+      }
+    }
+  }
+
+  private static long nextId(Connection connection, String table) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+
+  // The stock ledger starts from the seeded stock, so point-in-time reads of these materials have a base
+  private static void insertOpeningSnapshots(Connection connection, long firstMaterialId) throws SQLException {
+    try (PreparedStatement insert = connection.prepareStatement(
+            "INSERT INTO stock_snapshots (material_id, taken_at, stock_quantity) " +
+                    "SELECT id, CURRENT_TIMESTAMP, stock_quantity FROM raw_materials WHERE id >= ?")) {
+      insert.setLong(1, firstMaterialId);
+      insert.executeUpdate();
+    }
+  }
+
+  // Rows were inserted with explicit ids, so the id sequences must skip past them for later inserts
+  private static void restartSequence(Connection connection, String sequence, long next) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+    }
+  }
+}
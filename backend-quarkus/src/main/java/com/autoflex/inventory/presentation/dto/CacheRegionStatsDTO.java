@@ -0,0 +1,10 @@
+package com.autoflex.inventory.presentation.dto;
+
+public record CacheRegionStatsDTO(
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        long elementsInMemory
+) {
+}
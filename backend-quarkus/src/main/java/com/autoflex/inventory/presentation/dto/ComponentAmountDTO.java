@@ -0,0 +1,13 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record ComponentAmountDTO(
+        @NotNull(message = "Component ID is required")
+        Long componentId,
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be greater than zero")
+        Double quantity
+) {}
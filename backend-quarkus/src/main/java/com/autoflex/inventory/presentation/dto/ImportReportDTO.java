@@ -0,0 +1,15 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.util.List;
+
+public record ImportReportDTO(
+        long rowsRead,
+        long imported,
+        long rejected,
+        int chunks,
+        long elapsedMillis,
+        double rowsPerSecond,
+        boolean errorsTruncated,
+        List<ImportRowErrorDTO> errors
+) {
+}
@@ -0,0 +1,7 @@
+package com.autoflex.inventory.presentation.dto;
+
+public record ImportRowErrorDTO(
+        long line,
+        String message
+) {
+}
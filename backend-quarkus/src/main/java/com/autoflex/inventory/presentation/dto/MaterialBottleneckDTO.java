@@ -0,0 +1,11 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.math.BigDecimal;
+
+public record MaterialBottleneckDTO(
+        Long materialId,
+        Integer limitedProducts,
+        BigDecimal blockedValue,
+        Double totalShortfall
+) {
+}
@@ -0,0 +1,8 @@
+package com.autoflex.inventory.presentation.dto;
+
+public record ProductComponentDTO(
+        Long componentId,
+        String componentName,
+        Double requiredQuantity
+) {
+}
@@ -0,0 +1,12 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public record ProductMaterialBatchDTO(
+        @NotNull(message = "The materials list cannot be null")
+        @NotEmpty(message = "You must provide at least one material to add")
+        List<@Valid MaterialAmountDTO> materials
+) {}
@@ -0,0 +1,7 @@
+package com.autoflex.inventory.presentation.dto;
+
+public record ProductMaterialResponseDTO(
+        RawMaterialResponseDTO rawMaterial,
+        Double requiredQuantity
+) {
+}
@@ -0,0 +1,19 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public record ProductResponseDTO(
+        Long id,
+        String name,
+        BigDecimal price,
+        Long version,
+        List<ProductMaterialResponseDTO> materials
+) {
+
+  // Used by constructor projections; the formula is filled in afterwards from a second query
+  public ProductResponseDTO(Long id, String name, BigDecimal price, Long version) {
+    this(id, name, price, version, new ArrayList<>());
+  }
+}
@@ -0,0 +1,14 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record ProductionOrderDTO(
+        Long id,
+        Instant createdAt,
+        BigDecimal totalValue,
+        List<ProductionOrderItemDTO> items,
+        List<MaterialAmountDTO> consumedMaterials
+) {
+}
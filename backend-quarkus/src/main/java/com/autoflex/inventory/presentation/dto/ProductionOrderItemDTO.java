@@ -0,0 +1,12 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.math.BigDecimal;
+
+public record ProductionOrderItemDTO(
+        Long productId,
+        String productName,
+        Integer units,
+        BigDecimal unitPrice,
+        BigDecimal totalValue
+) {
+}
@@ -0,0 +1,13 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record ProductionOrderLineDTO(
+        @NotNull(message = "Product ID is required")
+        Long productId,
+
+        @NotNull(message = "Units are required")
+        @Positive(message = "Units must be greater than zero")
+        Integer units
+) {}
@@ -0,0 +1,12 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record ProductionOrderRequestDTO(
+        @NotEmpty(message = "At least one product is required")
+        @Size(max = 1000, message = "At most 1000 products per order")
+        List<@Valid ProductionOrderLineDTO> lines
+) {}
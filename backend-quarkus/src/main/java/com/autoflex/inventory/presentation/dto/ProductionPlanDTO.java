@@ -0,0 +1,15 @@
+package com.autoflex.inventory.presentation.dto;
+
+import com.autoflex.inventory.application.production.ProductionStrategy;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductionPlanDTO(
+        ProductionStrategy strategy,
+        boolean optimal,
+        long exploredNodes,
+        BigDecimal totalValue,
+        List<ProductionSuggestionDTO> suggestions
+) {
+}
@@ -0,0 +1,14 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.math.BigDecimal;
+
+public record ProductionSuggestionDetailDTO(
+        String productName,
+        Integer quantityToProduce,
+        BigDecimal unitPrice,
+        BigDecimal totalValue,
+        Long limitingMaterialId,
+        Double limitingMaterialRemaining,
+        Double shortfallForNextUnit
+) {
+}
@@ -0,0 +1,10 @@
+package com.autoflex.inventory.presentation.dto;
+
+public record RawMaterialResponseDTO(
+        Long id,
+        String name,
+        Double stockQuantity,
+        Double reservedQuantity,
+        Long version
+) {
+}
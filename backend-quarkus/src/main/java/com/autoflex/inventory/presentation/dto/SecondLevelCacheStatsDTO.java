@@ -0,0 +1,15 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.util.List;
+
+public record SecondLevelCacheStatsDTO(
+        boolean statisticsEnabled,
+        long hits,
+        long misses,
+        long puts,
+        long queryHits,
+        long queryMisses,
+        long queryPuts,
+        List<CacheRegionStatsDTO> regions
+) {
+}
@@ -0,0 +1,10 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public record SimulationRequestDTO(
+        @NotEmpty(message = "At least one scenario is required")
+        List<@Valid SimulationScenarioDTO> scenarios
+) {}
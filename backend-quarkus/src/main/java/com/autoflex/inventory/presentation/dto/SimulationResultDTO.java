@@ -0,0 +1,11 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record SimulationResultDTO(
+        String name,
+        BigDecimal totalValue,
+        List<ProductionSuggestionDTO> suggestions
+) {
+}
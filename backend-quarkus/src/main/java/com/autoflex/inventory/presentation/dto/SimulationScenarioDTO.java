@@ -0,0 +1,14 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public record SimulationScenarioDTO(
+        @NotBlank(message = "The scenario name cannot be empty")
+        String name,
+
+        @NotNull(message = "The stock changes are mandatory")
+        List<@Valid StockDeltaDTO> stockChanges
+) {}
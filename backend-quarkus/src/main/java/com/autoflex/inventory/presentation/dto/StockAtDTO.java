@@ -0,0 +1,12 @@
+package com.autoflex.inventory.presentation.dto;
+
+import java.time.Instant;
+
+public record StockAtDTO(
+        Long materialId,
+        Instant at,
+        Double stockQuantity,
+        Instant snapshotTakenAt,
+        Long replayedMovements
+) {
+}
@@ -0,0 +1,11 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record StockDeltaDTO(
+        @NotNull(message = "Material ID is required")
+        Long materialId,
+
+        @NotNull(message = "Quantity is required")
+        Double quantity
+) {}
@@ -0,0 +1,9 @@
+package com.autoflex.inventory.presentation.dto;
+
+public record StockLevelDTO(
+        Long materialId,
+        Double stockQuantity,
+        Double reservedQuantity,
+        Double availableQuantity
+) {
+}
@@ -0,0 +1,10 @@
+package com.autoflex.inventory.presentation.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record StockQuantityDTO(
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be greater than zero")
+        Double quantity
+) {}
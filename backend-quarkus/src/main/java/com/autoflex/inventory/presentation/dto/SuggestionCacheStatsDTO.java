@@ -0,0 +1,11 @@
+package com.autoflex.inventory.presentation.dto;
+
+public record SuggestionCacheStatsDTO(
+        long hits,
+        long misses,
+        long rebuilds,
+        double lastRebuildMillis,
+        double averageRebuildMillis,
+        long generation
+) {
+}
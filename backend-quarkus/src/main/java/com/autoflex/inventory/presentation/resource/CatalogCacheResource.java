@@ -0,0 +1,34 @@
+package com.autoflex.inventory.presentation.resource;
+
+import com.autoflex.inventory.application.cache.CatalogCacheRegions;
+import com.autoflex.inventory.presentation.dto.SecondLevelCacheStatsDTO;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/api/catalog/cache")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Catalog Cache", description = "Second-level cache of products, raw materials and formulas")
+public class CatalogCacheResource {
+
+  @Inject
+  CatalogCacheRegions cacheRegions;
+
+  @GET
+  @Operation(summary = "Get second-level cache statistics", description = "Retrieves hit, miss and put counters of the catalog cache regions and of the query cache")
+  @APIResponse(
+          responseCode = "200",
+          description = "Cache statistics retrieved successfully",
+          content = @Content(schema = @Schema(implementation = SecondLevelCacheStatsDTO.class))
+  )
+  public SecondLevelCacheStatsDTO getStats() {
+    return cacheRegions.stats();
+  }
+}
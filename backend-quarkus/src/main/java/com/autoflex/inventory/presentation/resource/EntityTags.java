@@ -0,0 +1,105 @@
+package com.autoflex.inventory.presentation.resource;
+
+import com.autoflex.inventory.application.exception.PreconditionFailedException;
+import com.autoflex.inventory.domain.CatalogVersion;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductMaterial;
+import com.autoflex.inventory.presentation.dto.ProductMaterialResponseDTO;
+import com.autoflex.inventory.presentation.dto.ProductResponseDTO;
+import com.autoflex.inventory.presentation.dto.RawMaterialResponseDTO;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Entity tags of catalog resources; If-Match compares only a product tag's leading version, not its hash. */
+final class EntityTags {
+
+  private EntityTags() {
+  }
+
+  static EntityTag of(Long rawMaterialVersion) {
+    return new EntityTag(Long.toString(rawMaterialVersion));
+  }
+
+  static EntityTag of(RawMaterialResponseDTO material) {
+    return of(material.version());
+  }
+
+  static EntityTag of(ProductResponseDTO product) {
+    long hash = 17;
+    for (ProductMaterialResponseDTO line : product.materials()) {
+      hash = 31 * hash + line.rawMaterial().id();
+      hash = 31 * hash + line.rawMaterial().version();
+    }
+    return new EntityTag(product.version() + "-" + Long.toHexString(hash));
+  }
+
+  // Same tag as the product's projection, which lists its lines in material id order
+  static EntityTag of(Product product) {
+    long hash = 17;
+    for (ProductMaterial line : product.materials.stream().sorted(Comparator.comparing(line -> line.rawMaterial.id)).toList()) {
+      hash = 31 * hash + line.rawMaterial.id;
+      hash = 31 * hash + line.rawMaterial.version;
+    }
+    return new EntityTag(product.version + "-" + Long.toHexString(hash));
+  }
+
+  // The change time tells apart counters of a recreated database
+  static EntityTag of(CatalogVersion.Stamp catalog) {
+    return new EntityTag("catalog-" + catalog.version() + "-" + Long.toHexString(catalog.changedAt().toEpochMilli()));
+  }
+
+  /** A 304 when the listing has not changed since the client's copy, or null. */
+  static Response.ResponseBuilder notModified(Request request, HttpHeaders headers, CatalogVersion.Stamp catalog) {
+    return headers.getHeaderString(HttpHeaders.IF_NONE_MATCH) != null
+            ? request.evaluatePreconditions(of(catalog))
+            : request.evaluatePreconditions(lastModified(catalog));
+  }
+
+  static Response tagged(Response response, CatalogVersion.Stamp catalog) {
+    return Response.fromResponse(response).tag(of(catalog)).lastModified(lastModified(catalog)).build();
+  }
+
+  private static Date lastModified(CatalogVersion.Stamp catalog) {
+    return Date.from(catalog.changedAt().truncatedTo(ChronoUnit.SECONDS));
+  }
+
+  /** Answers 304 when the request's If-None-Match still matches the tag, otherwise the entity with its tag. */
+  static Response ok(Request request, Object entity, EntityTag tag) {
+    Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+    if (notModified != null) {
+      return notModified.build();
+    }
+    return Response.status(Response.Status.OK).entity(entity).tag(tag).build();
+  }
+
+  /** The versions an If-Match header lists, or null when there is none or it accepts any version. */
+  static Set<Long> expectedVersions(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    Set<Long> versions = new HashSet<>();
+    for (String tag : ifMatch.split(",")) {
+      String value = tag.trim();
+      if (value.startsWith("W/")) value = value.substring(2);
+      value = value.replace("\"", "");
+      int dash = value.indexOf('-');
+      try {
+        versions.add(Long.parseLong(dash < 0 ? value : value.substring(0, dash)));
+      } catch (NumberFormatException e) {
+        // Left out: it cannot be a version of this resource
+      }
+    }
+    if (versions.isEmpty()) {
+      throw new PreconditionFailedException("If-Match does not hold a version of this resource: " + ifMatch);
+    }
+    return versions;
+  }
+}
@@ -0,0 +1,24 @@
+package com.autoflex.inventory.presentation.resource;
+
+import com.autoflex.inventory.application.pagination.KeysetPage;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+final class KeysetPageResponse {
+
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final int DEFAULT_PAGE_SIZE = 50;
+  static final int MAX_PAGE_SIZE = 500;
+
+  private KeysetPageResponse() {
+  }
+
+  static Response of(KeysetPage<?> page, UriInfo uriInfo) {
+    Response.ResponseBuilder response = Response.status(Response.Status.OK).entity(page.items());
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor())
+              .link(uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", page.nextCursor()).build(), "next");
+    }
+    return response.build();
+  }
+}
@@ -0,0 +1,88 @@
+package com.autoflex.inventory.presentation.resource;
+
+import com.autoflex.inventory.application.service.ProductComponentService;
+import com.autoflex.inventory.infrastructure.handlers.ProblemDetail;
+import com.autoflex.inventory.presentation.dto.ComponentAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductComponentDTO;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.util.List;
+
+@Path("/api/product-components")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Product Components", description = "Manage sub-assemblies used by products")
+public class ProductComponentResource {
+
+  @Inject
+  ProductComponentService productComponentService;
+
+  @GET
+  @Path("/{productId}")
+  @Operation(summary = "List the components of a product", description = "Retrieves the products used directly as sub-assemblies of a product")
+  @APIResponse(
+          responseCode = "200",
+          description = "Components retrieved successfully",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ProductComponentDTO.class))
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "Product not found",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public List<ProductComponentDTO> list(
+          @Parameter(description = "Product ID", required = true) @PathParam("productId") Long productId) {
+    return productComponentService.getComponents(productId);
+  }
+
+  @POST
+  @Path("/{productId}")
+  @Operation(summary = "Add a component to a product", description = "Uses another product as a sub-assembly of a product, " +
+          "or updates the quantity if it is already a component. Components that would create a cycle are rejected")
+  @APIResponse(
+          responseCode = "201",
+          description = "Component added successfully",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ProductComponentDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Validation Error or cycle in the bill of materials",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "Product not found",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response add(
+          @Parameter(description = "Product ID", required = true) @PathParam("productId") Long productId,
+          @Valid ComponentAmountDTO dto) {
+    List<ProductComponentDTO> components = productComponentService.addComponentToProduct(productId, dto);
+    return Response.status(Response.Status.CREATED).entity(components).build();
+  }
+
+  @DELETE
+  @Path("/{productId}/{componentId}")
+  @Operation(summary = "Remove a component from a product", description = "Removes a specific sub-assembly from a product")
+  @APIResponse(
+          responseCode = "204",
+          description = "Component removed successfully"
+  )
+  public Response remove(
+          @Parameter(description = "Product ID", required = true) @PathParam("productId") Long productId,
+          @Parameter(description = "Component product ID", required = true) @PathParam("componentId") Long componentId) {
+    productComponentService.removeComponentFromProduct(productId, componentId);
+    return Response.noContent().build();
+  }
+}
@@ -1,16 +1,27 @@
 package com.autoflex.inventory.presentation.resource;
 
+import com.autoflex.inventory.application.service.CatalogExportService;
+import com.autoflex.inventory.application.service.CatalogQueryService;
 import com.autoflex.inventory.application.service.ProductMaterialService;
+import com.autoflex.inventory.application.transfer.TransferFormat;
 import com.autoflex.inventory.domain.Product;
 import com.autoflex.inventory.domain.ProductMaterial;
 import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductMaterialBatchDTO;
+import com.autoflex.inventory.presentation.dto.ProductMaterialResponseDTO;
 import com.autoflex.inventory.presentation.dto.ProductMaterialUpdateDTO;
+import com.autoflex.inventory.presentation.dto.ProductResponseDTO;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -29,6 +40,53 @@ public class ProductMaterialResource {
   @Inject
   ProductMaterialService productMaterialService;
 
+  @Inject
+  CatalogQueryService catalogQueryService;
+
+  @Inject
+  CatalogExportService catalogExportService;
+
+  @GET
+  @Path("/export")
+  @Produces({TransferFormat.TEXT_CSV, TransferFormat.APPLICATION_NDJSON})
+  @Operation(summary = "Export formula lines", description = "Streams formula lines as CSV or NDJSON, chosen by the Accept header (CSV by default). " +
+          "Rows are read through a database cursor and written as they arrive")
+  @APIResponse(
+          responseCode = "200",
+          description = "Formula lines streamed"
+  )
+  public Response exportFormulas(@Context HttpHeaders headers) {
+    TransferFormat format = TransferFormat.negotiate(headers.getAcceptableMediaTypes());
+    StreamingOutput body = output -> catalogExportService.exportFormulas(output, format);
+    return Response.ok(body, format.mediaType())
+            .header("Content-Disposition", "attachment; filename=\"product-materials." + format.extension() + "\"")
+            .build();
+  }
+
+  @GET
+  @Path("/{productId}")
+  @Operation(summary = "List the materials of a product", description = "Retrieves the formula of a product with the current stock of each material, " +
+          "tagged with the same ETag as the product")
+  @APIResponse(
+          responseCode = "200",
+          description = "Materials retrieved successfully",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ProductMaterialResponseDTO.class))
+  )
+  @APIResponse(
+          responseCode = "304",
+          description = "Not modified since the version in If-None-Match"
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "Product not found",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response listByProduct(@Parameter(description = "Product ID", required = true) @PathParam("productId") Long productId,
+                                @Context Request request) {
+    ProductResponseDTO product = catalogQueryService.getProductById(productId);
+    return EntityTags.ok(request, product.materials(), EntityTags.of(product));
+  }
+
   @POST
   @Path("/{productId}")
   @Operation(summary = "Add a material to a product", description = "Adds a new material to an existing product")
@@ -49,6 +107,31 @@ public class ProductMaterialResource {
     return Response.status(Response.Status.CREATED).entity(product).build();
   }
 
+  @POST
+  @Path("/{productId}/batch")
+  @Operation(summary = "Add several materials to a product", description = "Adds all given materials to an existing product in a single transaction, or none of them if any is missing or already part of the product")
+  @APIResponse(
+          responseCode = "201",
+          description = "Materials added successfully",
+          content = @Content(schema = @Schema(implementation = Product.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Validation Error",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "Product or raw materials not found",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response addAll(
+          @Parameter(description = "Product ID", required = true) @PathParam("productId") Long productId,
+          @Valid ProductMaterialBatchDTO dto) {
+    Product product = productMaterialService.addMaterialsToProduct(productId, dto.materials());
+    return Response.status(Response.Status.CREATED).entity(product).build();
+  }
+
   @PUT
   @Path("/{productId}")
   @Operation(summary = "Update a material in a product", description = "Updates material information for a product")
@@ -62,10 +145,21 @@ public class ProductMaterialResource {
           description = "Validation Error",
           content = @Content(schema = @Schema(implementation = ProblemDetail.class))
   )
+  @APIResponse(
+          responseCode = "412",
+          description = "If-Match does not hold the current version",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Modified concurrently",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
   public Response update(
           @Parameter(description = "Product ID", required = true) @PathParam("productId") Long productId,
+          @Parameter(description = "ETag of the product version being updated") @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
           @Valid ProductMaterialUpdateDTO dto) {
-    List<ProductMaterial> pm = productMaterialService.updateMaterialInProduct(productId, dto);
+    List<ProductMaterial> pm = productMaterialService.updateMaterialInProduct(productId, dto, EntityTags.expectedVersions(ifMatch));
     return Response.status(Response.Status.OK).entity(pm).build();
   }
 
@@ -76,10 +170,21 @@ public class ProductMaterialResource {
           responseCode = "204",
           description = "Material removed successfully"
   )
+  @APIResponse(
+          responseCode = "412",
+          description = "If-Match does not hold the current version",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Modified concurrently",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
   public Response remove(
           @Parameter(description = "Product ID", required = true) @PathParam("productId") Long productId,
-          @Parameter(description = "Material ID", required = true) @PathParam("materialId") Long materialId) {
-    productMaterialService.removeMaterialFromProduct(productId, materialId);
+          @Parameter(description = "Material ID", required = true) @PathParam("materialId") Long materialId,
+          @Parameter(description = "ETag of the product version being changed") @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+    productMaterialService.removeMaterialFromProduct(productId, materialId, EntityTags.expectedVersions(ifMatch));
     return Response.noContent().build();
   }
 }
@@ -1,14 +1,30 @@
 package com.autoflex.inventory.presentation.resource;
 
+import com.autoflex.inventory.application.cache.CatalogVersionTracker;
+import com.autoflex.inventory.application.pagination.KeysetPage;
+import com.autoflex.inventory.domain.CatalogVersion;
+import com.autoflex.inventory.application.service.CatalogExportService;
+import com.autoflex.inventory.application.service.CatalogImportService;
+import com.autoflex.inventory.application.service.CatalogQueryService;
 import com.autoflex.inventory.application.service.ProductService;
+import com.autoflex.inventory.application.transfer.TransferFormat;
 import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.presentation.dto.ImportReportDTO;
 import com.autoflex.inventory.presentation.dto.ProductRequestDTO;
+import com.autoflex.inventory.presentation.dto.ProductResponseDTO;
 import com.autoflex.inventory.presentation.dto.ProductUpdateDTO;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
@@ -18,6 +34,7 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import com.autoflex.inventory.infrastructure.handlers.ProblemDetail;
 
+import java.io.InputStream;
 import java.util.List;
 
 @Path("/api/products")
@@ -29,29 +46,112 @@ public class ProductResource {
   @Inject
   ProductService productService;
 
+  @Inject
+  CatalogQueryService catalogQueryService;
+
+  @Inject
+  CatalogVersionTracker catalogVersion;
+
+  @Inject
+  CatalogImportService catalogImportService;
+
+  @Inject
+  CatalogExportService catalogExportService;
+
+  @GET
+  @Path("/export")
+  @Produces({TransferFormat.TEXT_CSV, TransferFormat.APPLICATION_NDJSON})
+  @Operation(summary = "Export products with their formulas", description = "Streams products with their formulas as CSV or NDJSON, chosen by the Accept header (CSV by default). " +
+          "Rows are read through a database cursor and written as they arrive")
+  @APIResponse(
+          responseCode = "200",
+          description = "Products with their formulas streamed"
+  )
+  public Response exportProducts(@Context HttpHeaders headers) {
+    TransferFormat format = TransferFormat.negotiate(headers.getAcceptableMediaTypes());
+    StreamingOutput body = output -> catalogExportService.exportProducts(output, format);
+    return Response.ok(body, format.mediaType())
+            .header("Content-Disposition", "attachment; filename=\"products." + format.extension() + "\"")
+            .build();
+  }
+
+  @POST
+  @Path("/import")
+  @Consumes({TransferFormat.TEXT_CSV, TransferFormat.APPLICATION_NDJSON})
+  @Operation(summary = "Import products", description = "Streams products from a CSV (with a header row) or NDJSON body, validating row by row and " +
+          "writing them in chunked transactions. Invalid rows are skipped and listed in the report")
+  @APIResponse(
+          responseCode = "200",
+          description = "Import report with rejected rows and throughput",
+          content = @Content(schema = @Schema(implementation = ImportReportDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Missing CSV columns",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response importProducts(InputStream body, @HeaderParam(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+    ImportReportDTO report = catalogImportService.importProducts(body, TransferFormat.of(contentType));
+    return Response.status(Response.Status.OK).entity(report).build();
+  }
+
   @GET
-  @Operation(summary = "List all products", description = "Retrieves a list of all available products")
+  @Operation(summary = "List all products", description = "Retrieves a list of all available products ordered by price. " +
+          "With limit, cursor or name the list is paginated by keyset; the X-Next-Cursor and Link headers point to the next page")
   @APIResponse(
           responseCode = "200",
           description = "List of products retrieved successfully",
-          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = Product.class))
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ProductResponseDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Invalid limit or cursor",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "304",
+          description = "The catalog has not changed since the version in If-None-Match or the date in If-Modified-Since"
   )
-  public Response listAll() {
-    List<Product> products = productService.getAllProducts();
-    return Response.status(Response.Status.OK).entity(products).build();
+  public Response listAll(
+          @Parameter(description = "Case-insensitive filter on the name") @QueryParam("name") String name,
+          @Parameter(description = "Opaque cursor from the X-Next-Cursor header of the previous page") @QueryParam("cursor") String cursor,
+          @Parameter(description = "Page size; without name, cursor or limit every row is returned")
+          @QueryParam("limit") @Min(value = 1, message = "The limit must be at least 1")
+          @Max(value = KeysetPageResponse.MAX_PAGE_SIZE, message = "The limit must be at most " + KeysetPageResponse.MAX_PAGE_SIZE) Integer limit,
+          @Context UriInfo uriInfo,
+          @Context Request request,
+          @Context HttpHeaders headers) {
+    // Read before the query, so a change committed meanwhile can only make the tag older than the body
+    CatalogVersion.Stamp catalog = catalogVersion.current();
+    Response.ResponseBuilder notModified = EntityTags.notModified(request, headers, catalog);
+    if (notModified != null) {
+      return notModified.build();
+    }
+    if (name == null && cursor == null && limit == null) {
+      List<ProductResponseDTO> products = catalogQueryService.getAllProducts();
+      return EntityTags.tagged(Response.status(Response.Status.OK).entity(products).build(), catalog);
+    }
+    KeysetPage<ProductResponseDTO> page = catalogQueryService.getProductPage(name, cursor, limit == null ? KeysetPageResponse.DEFAULT_PAGE_SIZE : limit);
+    return EntityTags.tagged(KeysetPageResponse.of(page, uriInfo), catalog);
   }
 
   @GET
   @Path("/{id}")
-  @Operation(summary = "Get a product by ID", description = "Retrieves a product by its unique identifier")
+  @Operation(summary = "Get a product by ID", description = "Retrieves a product by its unique identifier, " +
+          "tagged in the ETag header with its version and the versions of its materials")
   @APIResponse(
           responseCode = "200",
           description = "Product retrieved successfully",
-          content = @Content(schema = @Schema(implementation = Product.class))
+          content = @Content(schema = @Schema(implementation = ProductResponseDTO.class))
+  )
+  @APIResponse(
+          responseCode = "304",
+          description = "Not modified since the version in If-None-Match"
   )
-  public Response getById(@Parameter(description = "Product ID", required = true) @PathParam("id") Long id) {
-    Product product = productService.getProductById(id);
-    return Response.status(Response.Status.OK).entity(product).build();
+  public Response getById(@Parameter(description = "Product ID", required = true) @PathParam("id") Long id,
+                          @Context Request request) {
+    ProductResponseDTO product = catalogQueryService.getProductById(id);
+    return EntityTags.ok(request, product, EntityTags.of(product));
   }
 
   @POST
@@ -84,11 +184,22 @@ public class ProductResource {
           description = "Validation Error",
           content = @Content(schema = @Schema(implementation = ProblemDetail.class))
   )
+  @APIResponse(
+          responseCode = "412",
+          description = "If-Match does not hold the current version",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Modified concurrently",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
   public Response update(
           @Parameter(description = "Product ID", required = true) @PathParam("id") Long id,
+          @Parameter(description = "ETag of the version being updated") @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
           @Valid ProductUpdateDTO dto) {
-    Product product = productService.updateProductWithMaterials(id, dto);
-    return Response.status(Response.Status.OK).entity(product).build();
+    Product product = productService.updateProductWithMaterials(id, dto, EntityTags.expectedVersions(ifMatch));
+    return Response.status(Response.Status.OK).entity(product).tag(EntityTags.of(product)).build();
   }
 
   @DELETE
@@ -98,8 +209,20 @@ public class ProductResource {
           responseCode = "204",
           description = "Product deleted successfully"
   )
-  public Response delete(@Parameter(description = "Product ID", required = true) @PathParam("id") Long id) {
-    productService.deleteProductById(id);
+  @APIResponse(
+          responseCode = "412",
+          description = "If-Match does not hold the current version",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Modified concurrently",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response delete(
+          @Parameter(description = "Product ID", required = true) @PathParam("id") Long id,
+          @Parameter(description = "ETag of the version being deleted") @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+    productService.deleteProductById(id, EntityTags.expectedVersions(ifMatch));
     return Response.noContent().build();
   }
 
@@ -1,18 +1,53 @@
 package com.autoflex.inventory.presentation.resource;
 
+import com.autoflex.inventory.application.cache.CatalogVersionTracker;
+import com.autoflex.inventory.application.production.ProductionStrategy;
+import com.autoflex.inventory.application.production.ProductionSuggestionCache;
 import com.autoflex.inventory.application.service.ProductService;
+import com.autoflex.inventory.application.service.ProductionOrderService;
+import com.autoflex.inventory.domain.CatalogVersion;
+import com.autoflex.inventory.infrastructure.handlers.ProblemDetail;
+import com.autoflex.inventory.presentation.dto.MaterialBottleneckDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderRequestDTO;
+import com.autoflex.inventory.presentation.dto.ProductionPlanDTO;
 import com.autoflex.inventory.presentation.dto.ProductionSuggestionDTO;
+import com.autoflex.inventory.presentation.dto.ProductionSuggestionDetailDTO;
+import com.autoflex.inventory.presentation.dto.SimulationRequestDTO;
+import com.autoflex.inventory.presentation.dto.SimulationResultDTO;
+import com.autoflex.inventory.presentation.dto.SuggestionCacheStatsDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.logging.Log;
 import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
 
 @Path("/api/production")
@@ -20,18 +55,234 @@ import java.util.List;
 @Tag(name = "Production", description = "Get production suggestions")
 public class ProductionResource {
 
+  static final String APPLICATION_NDJSON = "application/x-ndjson";
+  static final String STRATEGY_HEADER = "X-Production-Strategy";
+  static final String OPTIMAL_HEADER = "X-Production-Optimal";
+  static final String EXPLORED_NODES_HEADER = "X-Production-Explored-Nodes";
+
   @Inject
   ProductService productService;
 
+  @Inject
+  ProductionOrderService productionOrderService;
+
+  @Inject
+  ProductionSuggestionCache suggestionCache;
+
+  @Inject
+  CatalogVersionTracker catalogVersion;
+
+  @Inject
+  ObjectMapper objectMapper;
+
   @GET
   @Path("/suggestions")
-  @Operation(summary = "Get production suggestions", description = "Retrieves production suggestions based on inventory levels")
+  @Operation(summary = "Get production suggestions", description = "Retrieves production suggestions based on inventory levels. " +
+          "The 'optimal' strategy maximizes total value with a bounded branch-and-bound search and reports in the " +
+          "X-Production-Optimal header whether the result is proven optimal or the best found within the budget. " +
+          "With limit or minTotalValue the suggestions are ranked by total value instead of plan order")
+  @APIResponse(
+          responseCode = "200",
+          description = "Production suggestions retrieved successfully",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ProductionSuggestionDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Unknown strategy or invalid limit",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "304",
+          description = "The catalog has not changed since the version in If-None-Match or the date in If-Modified-Since"
+  )
+  public Response getProductionSuggestions(
+          @Parameter(description = "Planning strategy: greedy (price order) or optimal") @QueryParam("strategy") @DefaultValue("greedy") String strategy,
+          @Parameter(description = "Only return the suggestions with the highest total value, best first")
+          @QueryParam("limit") @Min(value = 1, message = "The limit must be at least 1") Integer limit,
+          @Parameter(description = "Only return suggestions whose total value is at least this amount")
+          @QueryParam("minTotalValue") BigDecimal minTotalValue,
+          @Context Request request,
+          @Context HttpHeaders headers) {
+    ProductionStrategy productionStrategy = ProductionStrategy.fromString(strategy);
+    CatalogVersion.Stamp catalog = catalogVersion.current();
+    Response.ResponseBuilder notModified = EntityTags.notModified(request, headers, catalog);
+    if (notModified != null) {
+      return notModified.build();
+    }
+    ProductionPlanDTO plan = limit == null && minTotalValue == null
+            ? productService.getProductionPlan(productionStrategy)
+            : productService.getTopProductionPlan(productionStrategy, limit, minTotalValue);
+    return EntityTags.tagged(Response.ok(plan.suggestions())
+            .header(STRATEGY_HEADER, plan.strategy())
+            .header(OPTIMAL_HEADER, plan.optimal())
+            .header(EXPLORED_NODES_HEADER, plan.exploredNodes())
+            .build(), catalog);
+  }
+
+  @GET
+  @Path("/suggestions/detailed")
+  @Operation(summary = "Get production suggestions with bottlenecks", description = "Retrieves the greedy production suggestions, " +
+          "including products that cannot be built, together with the raw material that limited each one, how much of it was " +
+          "left and how much more is needed for one more unit")
   @APIResponse(
           responseCode = "200",
           description = "Production suggestions retrieved successfully",
-          content = @Content(schema = @Schema(implementation = ProductionSuggestionDTO.class))
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ProductionSuggestionDetailDTO.class))
   )
-  public List<ProductionSuggestionDTO> getProductionSuggestions() {
-    return productService.getProductionSuggestions();
+  public List<ProductionSuggestionDetailDTO> getDetailedProductionSuggestions() {
+    return productService.getDetailedProductionSuggestions();
+  }
+
+  @GET
+  @Path("/bottlenecks")
+  @Operation(summary = "Get the most constraining raw materials", description = "Ranks raw materials by the value they block: " +
+          "the value of one more unit of every product they limit in the greedy plan")
+  @APIResponse(
+          responseCode = "200",
+          description = "Bottlenecks retrieved successfully",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = MaterialBottleneckDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Invalid limit",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public List<MaterialBottleneckDTO> getBottlenecks(
+          @Parameter(description = "Maximum number of materials to return") @QueryParam("limit")
+          @Min(value = 1, message = "The limit must be at least 1") Integer limit) {
+    return productService.getMaterialBottlenecks(limit);
+  }
+
+  @GET
+  @Path("/suggestions/stream")
+  @Produces(APPLICATION_NDJSON)
+  @Operation(summary = "Stream production suggestions", description = "Streams greedy production suggestions as newline-delimited JSON, " +
+          "emitting each one as soon as it is decided. Disconnecting stops the computation")
+  @APIResponse(
+          responseCode = "200",
+          description = "Production suggestions stream started",
+          content = @Content(mediaType = APPLICATION_NDJSON, schema = @Schema(implementation = ProductionSuggestionDTO.class))
+  )
+  public Response streamProductionSuggestions() {
+    StreamingOutput output = out -> {
+      try {
+        productService.streamProductionSuggestions(suggestion -> writeLine(out, suggestion));
+      } catch (UncheckedIOException e) {
+        Log.debugf("Production suggestion stream aborted: %s", e.getCause().getMessage());
+      }
+    };
+    return Response.ok(output, APPLICATION_NDJSON).build();
+  }
+
+  @GET
+  @Path("/plan")
+  @Operation(summary = "Get a production plan", description = "Retrieves the production suggestions together with their total value and optimality report")
+  @APIResponse(
+          responseCode = "200",
+          description = "Production plan retrieved successfully",
+          content = @Content(schema = @Schema(implementation = ProductionPlanDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Unknown strategy",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public ProductionPlanDTO getProductionPlan(
+          @Parameter(description = "Planning strategy: greedy (price order) or optimal") @QueryParam("strategy") @DefaultValue("greedy") String strategy) {
+    return productService.getProductionPlan(ProductionStrategy.fromString(strategy));
+  }
+
+  @POST
+  @Path("/simulations")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Operation(summary = "Simulate production scenarios", description = "Plans production for a batch of hypothetical stock changes " +
+          "against the current inventory without persisting anything. Stock that would drop below zero is treated as zero")
+  @APIResponse(
+          responseCode = "200",
+          description = "One production plan per scenario, in request order",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = SimulationResultDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Validation Error",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "Raw material not found",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public List<SimulationResultDTO> simulate(@Valid SimulationRequestDTO dto) {
+    return productService.simulateProduction(dto);
+  }
+
+  @POST
+  @Path("/orders")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Operation(summary = "Place a production order", description = "Commits a production plan: the raw materials of every product, " +
+          "nested components included, are summed and drawn from available stock in one conditional update, and the order is " +
+          "recorded. If any material is short nothing is consumed. Repeated products are summed")
+  @APIResponse(
+          responseCode = "201",
+          description = "Order placed and stock consumed",
+          content = @Content(schema = @Schema(implementation = ProductionOrderDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Validation Error",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "Product not found",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Insufficient stock for at least one material",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response placeOrder(@Valid @NotNull(message = "The request body is required") ProductionOrderRequestDTO dto) {
+    ProductionOrderDTO order = productionOrderService.placeOrder(dto);
+    return Response.status(Response.Status.CREATED).entity(order).build();
+  }
+
+  @GET
+  @Path("/orders/{id}")
+  @Operation(summary = "Get a production order", description = "Retrieves a placed production order with its products and consumed materials")
+  @APIResponse(
+          responseCode = "200",
+          description = "Production order retrieved successfully",
+          content = @Content(schema = @Schema(implementation = ProductionOrderDTO.class))
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "Production order not found",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public ProductionOrderDTO getOrder(@Parameter(description = "Production order ID", required = true) @PathParam("id") Long id) {
+    return productionOrderService.getOrderById(id);
+  }
+
+  @GET
+  @Path("/suggestions/cache")
+  @Operation(summary = "Get suggestion cache statistics", description = "Retrieves hit, miss and rebuild-time counters of the production suggestion cache")
+  @APIResponse(
+          responseCode = "200",
+          description = "Cache statistics retrieved successfully",
+          content = @Content(schema = @Schema(implementation = SuggestionCacheStatsDTO.class))
+  )
+  public SuggestionCacheStatsDTO getSuggestionCacheStats() {
+    return suggestionCache.stats();
+  }
+
+  private void writeLine(OutputStream out, Object value) {
+    try {
+      out.write(objectMapper.writeValueAsBytes(value));
+      out.write('\n');
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
@@ -1,14 +1,39 @@
 package com.autoflex.inventory.presentation.resource;
 
+import com.autoflex.inventory.application.cache.CatalogVersionTracker;
+import com.autoflex.inventory.application.pagination.KeysetPage;
+import com.autoflex.inventory.domain.CatalogVersion;
+import com.autoflex.inventory.application.service.CatalogExportService;
+import com.autoflex.inventory.application.service.CatalogImportService;
+import com.autoflex.inventory.application.service.CatalogQueryService;
 import com.autoflex.inventory.application.service.RawMaterialService;
+import com.autoflex.inventory.application.service.StockLedgerService;
+import com.autoflex.inventory.application.service.StockService;
+import com.autoflex.inventory.application.transfer.TransferFormat;
 import com.autoflex.inventory.domain.RawMaterial;
 import com.autoflex.inventory.infrastructure.handlers.ProblemDetail;
+import com.autoflex.inventory.presentation.dto.ImportReportDTO;
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
 import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
+import com.autoflex.inventory.presentation.dto.RawMaterialResponseDTO;
+import com.autoflex.inventory.presentation.dto.StockAtDTO;
+import com.autoflex.inventory.presentation.dto.StockLevelDTO;
+import com.autoflex.inventory.presentation.dto.StockQuantityDTO;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -17,6 +42,10 @@ import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Path("/api/raw-materials")
@@ -25,9 +54,30 @@ import java.util.List;
 @Tag(name = "Raw Materials", description = "Manage raw materials")
 public class RawMaterialResource {
 
+  // Materials travel in one IN list, which Oracle caps at 1000 expressions
+  private static final int MAX_STOCK_LINES = 1000;
+
   @Inject
   RawMaterialService rawMaterialService;
 
+  @Inject
+  StockLedgerService stockLedgerService;
+
+  @Inject
+  CatalogQueryService catalogQueryService;
+
+  @Inject
+  CatalogVersionTracker catalogVersion;
+
+  @Inject
+  StockService stockService;
+
+  @Inject
+  CatalogImportService catalogImportService;
+
+  @Inject
+  CatalogExportService catalogExportService;
+
   @POST
   @Operation(summary = "Create a new raw material", description = "Creates a new raw material with the provided data")
   @APIResponse(
@@ -45,16 +95,199 @@ public class RawMaterialResource {
     return Response.status(Response.Status.CREATED).entity(material).build();
   }
 
+  @GET
+  @Path("/export")
+  @Produces({TransferFormat.TEXT_CSV, TransferFormat.APPLICATION_NDJSON})
+  @Operation(summary = "Export raw materials and their stock", description = "Streams raw materials and their stock as CSV or NDJSON, chosen by the Accept header (CSV by default). " +
+          "Rows are read through a database cursor and written as they arrive")
+  @APIResponse(
+          responseCode = "200",
+          description = "Raw materials and their stock streamed"
+  )
+  public Response exportRawMaterials(@Context HttpHeaders headers) {
+    TransferFormat format = TransferFormat.negotiate(headers.getAcceptableMediaTypes());
+    StreamingOutput body = output -> catalogExportService.exportRawMaterials(output, format);
+    return Response.ok(body, format.mediaType())
+            .header("Content-Disposition", "attachment; filename=\"raw-materials." + format.extension() + "\"")
+            .build();
+  }
+
+  @POST
+  @Path("/import")
+  @Consumes({TransferFormat.TEXT_CSV, TransferFormat.APPLICATION_NDJSON})
+  @Operation(summary = "Import raw materials", description = "Streams raw materials from a CSV (with a header row) or NDJSON body, validating row by row and " +
+          "writing them in chunked transactions. Invalid rows are skipped and listed in the report")
+  @APIResponse(
+          responseCode = "200",
+          description = "Import report with rejected rows and throughput",
+          content = @Content(schema = @Schema(implementation = ImportReportDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Missing CSV columns",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response importRawMaterials(InputStream body, @HeaderParam(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+    ImportReportDTO report = catalogImportService.importRawMaterials(body, TransferFormat.of(contentType));
+    return Response.status(Response.Status.OK).entity(report).build();
+  }
+
+  @POST
+  @Path("/batch")
+  @Operation(summary = "Create raw materials in bulk", description = "Creates all given raw materials in a single transaction, inserted in JDBC batches")
+  @APIResponse(
+          responseCode = "201",
+          description = "Materials Created",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = RawMaterial.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Validation Error",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response createAll(
+          @NotEmpty(message = "You must provide at least one raw material") List<@Valid RawMaterialRequestDTO> dtos) {
+    List<RawMaterial> materials = rawMaterialService.saveRawMaterials(dtos);
+    return Response.status(Response.Status.CREATED).entity(materials).build();
+  }
+
+  @POST
+  @Path("/{id}/consume")
+  @Operation(summary = "Consume stock of a raw material", description = "Subtracts the quantity with a single conditional update, " +
+          "only if enough stock is available; with fromReservation the quantity is taken from what was reserved instead")
+  @APIResponse(
+          responseCode = "200",
+          description = "Stock consumed",
+          content = @Content(schema = @Schema(implementation = StockLevelDTO.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Insufficient stock",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public StockLevelDTO consume(
+          @Parameter(description = "Material ID", required = true) @PathParam("id") Long id,
+          @Parameter(description = "Take the quantity from the material's reservations") @QueryParam("fromReservation") boolean fromReservation,
+          @Valid @NotNull(message = "The request body is required") StockQuantityDTO dto) {
+    return stockService.consume(id, dto.quantity(), fromReservation);
+  }
+
+  @POST
+  @Path("/{id}/reserve")
+  @Operation(summary = "Reserve stock of a raw material", description = "Holds the quantity for later consumption, only if enough stock is available")
+  @APIResponse(
+          responseCode = "200",
+          description = "Stock reserved",
+          content = @Content(schema = @Schema(implementation = StockLevelDTO.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Insufficient stock",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public StockLevelDTO reserve(
+          @Parameter(description = "Material ID", required = true) @PathParam("id") Long id,
+          @Valid @NotNull(message = "The request body is required") StockQuantityDTO dto) {
+    return stockService.reserve(id, dto.quantity());
+  }
+
+  @POST
+  @Path("/{id}/release")
+  @Operation(summary = "Release reserved stock of a raw material", description = "Returns a reserved quantity to the available stock")
+  @APIResponse(
+          responseCode = "200",
+          description = "Reservation released",
+          content = @Content(schema = @Schema(implementation = StockLevelDTO.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Less than the quantity is reserved",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public StockLevelDTO release(
+          @Parameter(description = "Material ID", required = true) @PathParam("id") Long id,
+          @Valid @NotNull(message = "The request body is required") StockQuantityDTO dto) {
+    return stockService.release(id, dto.quantity());
+  }
+
+  @POST
+  @Path("/consume")
+  @Operation(summary = "Consume stock of several raw materials", description = "Applies every line in one conditional update, " +
+          "or none of them if any material lacks stock. Repeated materials are summed")
+  @APIResponse(
+          responseCode = "200",
+          description = "Stock consumed",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = StockLevelDTO.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Insufficient stock for at least one material",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public List<StockLevelDTO> consumeAll(
+          @Parameter(description = "Take the quantities from the materials' reservations") @QueryParam("fromReservation") boolean fromReservation,
+          @NotEmpty(message = "You must provide at least one material")
+          @Size(max = MAX_STOCK_LINES, message = "At most " + MAX_STOCK_LINES + " materials per request") List<@Valid MaterialAmountDTO> lines) {
+    return stockService.consumeAll(lines, fromReservation);
+  }
+
+  @POST
+  @Path("/reserve")
+  @Operation(summary = "Reserve stock of several raw materials", description = "Reserves every line in one conditional update, " +
+          "or none of them if any material lacks stock. Repeated materials are summed")
+  @APIResponse(
+          responseCode = "200",
+          description = "Stock reserved",
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = StockLevelDTO.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Insufficient stock for at least one material",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public List<StockLevelDTO> reserveAll(
+          @NotEmpty(message = "You must provide at least one material")
+          @Size(max = MAX_STOCK_LINES, message = "At most " + MAX_STOCK_LINES + " materials per request") List<@Valid MaterialAmountDTO> lines) {
+    return stockService.reserveAll(lines);
+  }
+
   @GET
   @Operation(summary = "List all raw materials", description = "Retrieves a list of all available raw materials")
   @APIResponse(
           responseCode = "200",
           description = "List of materials retrieved successfully",
-          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = RawMaterial.class))
+          content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = RawMaterialResponseDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Invalid limit or cursor",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "304",
+          description = "The catalog has not changed since the version in If-None-Match or the date in If-Modified-Since"
   )
-  public Response listAll(){
-    List<RawMaterial> materials = rawMaterialService.getAllRawMaterials();
-    return Response.status(Response.Status.OK).entity(materials).build();
+  public Response listAll(
+          @Parameter(description = "Case-insensitive filter on the name") @QueryParam("name") String name,
+          @Parameter(description = "Opaque cursor from the X-Next-Cursor header of the previous page") @QueryParam("cursor") String cursor,
+          @Parameter(description = "Page size; without name, cursor or limit every row is returned")
+          @QueryParam("limit") @Min(value = 1, message = "The limit must be at least 1")
+          @Max(value = KeysetPageResponse.MAX_PAGE_SIZE, message = "The limit must be at most " + KeysetPageResponse.MAX_PAGE_SIZE) Integer limit,
+          @Context UriInfo uriInfo,
+          @Context Request request,
+          @Context HttpHeaders headers){
+    // Read before the query, so a change committed meanwhile can only make the tag older than the body
+    CatalogVersion.Stamp catalog = catalogVersion.current();
+    Response.ResponseBuilder notModified = EntityTags.notModified(request, headers, catalog);
+    if (notModified != null) {
+      return notModified.build();
+    }
+    if (name == null && cursor == null && limit == null) {
+      List<RawMaterialResponseDTO> materials = catalogQueryService.getAllRawMaterials();
+      return EntityTags.tagged(Response.status(Response.Status.OK).entity(materials).build(), catalog);
+    }
+    KeysetPage<RawMaterialResponseDTO> page = catalogQueryService.getRawMaterialPage(name, cursor, limit == null ? KeysetPageResponse.DEFAULT_PAGE_SIZE : limit);
+    return EntityTags.tagged(KeysetPageResponse.of(page, uriInfo), catalog);
   }
 
   @PUT
@@ -70,24 +303,66 @@ public class RawMaterialResource {
           description = "Validation Error",
           content = @Content(schema = @Schema(implementation = ProblemDetail.class))
   )
+  @APIResponse(
+          responseCode = "412",
+          description = "If-Match does not hold the current version",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Modified concurrently",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
   public Response update(
           @Parameter(description = "Material ID", required = true) @PathParam("id") Long id,
+          @Parameter(description = "ETag of the version being updated") @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
           @Valid RawMaterialRequestDTO dto) {
-    RawMaterial material = rawMaterialService.updateRawMaterial(id, dto);
-    return Response.status(Response.Status.OK).entity(material).build();
+    RawMaterial material = rawMaterialService.updateRawMaterial(id, dto, EntityTags.expectedVersions(ifMatch));
+    return Response.status(Response.Status.OK).entity(material).tag(EntityTags.of(material.version)).build();
   }
 
   @GET
   @Path("/{id}")
-  @Operation(summary = "Get a raw material by ID", description = "Retrieves a raw material by its unique identifier")
+  @Operation(summary = "Get a raw material by ID", description = "Retrieves a raw material by its unique identifier, " +
+          "tagged with its version in the ETag header")
   @APIResponse(
           responseCode = "200",
           description = "Material retrieved successfully",
-          content = @Content(schema = @Schema(implementation = RawMaterial.class))
+          content = @Content(schema = @Schema(implementation = RawMaterialResponseDTO.class))
+  )
+  @APIResponse(
+          responseCode = "304",
+          description = "Not modified since the version in If-None-Match"
   )
-  public Response getById(@Parameter(description = "Material ID", required = true) @PathParam("id") Long id) {
-    RawMaterial material = rawMaterialService.getRawMaterialById(id);
-    return Response.status(Response.Status.OK).entity(material).build();
+  public Response getById(@Parameter(description = "Material ID", required = true) @PathParam("id") Long id,
+                          @Context Request request) {
+    RawMaterialResponseDTO material = catalogQueryService.getRawMaterialById(id);
+    return EntityTags.ok(request, material, EntityTags.of(material));
+  }
+
+  @GET
+  @Path("/{id}/stock")
+  @Operation(summary = "Get the stock of a raw material at a point in time", description = "Rebuilds the stock from the " +
+          "latest ledger snapshot taken at or before the instant plus the movements recorded since. Defaults to now")
+  @APIResponse(
+          responseCode = "200",
+          description = "Stock retrieved successfully",
+          content = @Content(schema = @Schema(implementation = StockAtDTO.class))
+  )
+  @APIResponse(
+          responseCode = "400",
+          description = "Invalid instant",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "404",
+          description = "No stock recorded for the material at that instant",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public StockAtDTO getStockAt(
+          @Parameter(description = "Material ID", required = true) @PathParam("id") Long id,
+          @Parameter(description = "ISO-8601 instant with offset, e.g. 2026-01-31T18:00:00Z") @QueryParam("at") String at) {
+    return stockLedgerService.getStockAt(id, at == null ? Instant.now() : parseInstant(at));
   }
 
   @DELETE
@@ -97,9 +372,28 @@ public class RawMaterialResource {
           responseCode = "204",
           description = "Material deleted successfully"
   )
-  public Response delete(@Parameter(description = "Material ID", required = true) @PathParam("id") Long id) {
-    rawMaterialService.deleteRawMaterialById(id);
+  @APIResponse(
+          responseCode = "412",
+          description = "If-Match does not hold the current version",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  @APIResponse(
+          responseCode = "409",
+          description = "Modified concurrently",
+          content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+  )
+  public Response delete(
+          @Parameter(description = "Material ID", required = true) @PathParam("id") Long id,
+          @Parameter(description = "ETag of the version being deleted") @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+    rawMaterialService.deleteRawMaterialById(id, EntityTags.expectedVersions(ifMatch));
     return Response.noContent().build();
   }
 
+  private static Instant parseInstant(String value) {
+    try {
+      return OffsetDateTime.parse(value).toInstant();
+    } catch (DateTimeParseException e) {
+      throw new BadRequestException("Invalid instant '" + value + "', expected ISO-8601 with an offset");
+    }
+  }
 }
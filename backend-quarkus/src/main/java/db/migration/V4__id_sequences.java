@@ -0,0 +1,31 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/** Starts the id sequences after the ids in use; the increment must match the generators' {@code allocationSize}. */
+public class V4__id_sequences extends BaseJavaMigration {
+
+  static final int ALLOCATION_SIZE = 50;
+
+  @Override
+  public void migrate(Context context) throws SQLException {
+    try (Statement statement = context.getConnection().createStatement()) {
+      createSequence(statement, "raw_materials", "raw_materials_seq");
+      createSequence(statement, "products", "products_seq");
+    }
+  }
+
+  private static void createSequence(Statement statement, String table, String sequence) throws SQLException {
+    long start;
+    try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+      result.next();
+      start = result.getLong(1);
+    }
+    statement.execute("CREATE SEQUENCE " + sequence + " START WITH " + start + " INCREMENT BY " + ALLOCATION_SIZE);
+  }
+}
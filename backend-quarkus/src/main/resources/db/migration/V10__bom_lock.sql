@@ -0,0 +1,5 @@
+CREATE TABLE bom_lock (
+                          id NUMBER PRIMARY KEY CHECK (id = 1)
+);
+
+INSERT INTO bom_lock (id) VALUES (1);
@@ -0,0 +1,13 @@
+CREATE TABLE product_components (
+                                    assembly_id NUMBER NOT NULL,
+                                    component_id NUMBER NOT NULL,
+                                    required_quantity NUMBER(19, 2) NOT NULL,
+                                    CONSTRAINT pk_product_components PRIMARY KEY (assembly_id, component_id),
+                                    CONSTRAINT fk_pc_assembly FOREIGN KEY (assembly_id)
+                                        REFERENCES products(id) ON DELETE CASCADE,
+                                    CONSTRAINT fk_pc_component FOREIGN KEY (component_id)
+                                        REFERENCES products(id) ON DELETE CASCADE,
+                                    CONSTRAINT ck_pc_not_self CHECK (assembly_id <> component_id)
+);
+
+CREATE INDEX idx_pc_component ON product_components (component_id);
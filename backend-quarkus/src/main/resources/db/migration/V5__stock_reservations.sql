@@ -0,0 +1,3 @@
+ALTER TABLE raw_materials ADD reserved_quantity NUMBER(19, 2) DEFAULT 0 NOT NULL;
+
+ALTER TABLE raw_materials ADD CONSTRAINT ck_raw_materials_reserved CHECK (reserved_quantity >= 0);
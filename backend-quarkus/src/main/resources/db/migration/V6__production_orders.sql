@@ -0,0 +1,28 @@
+CREATE SEQUENCE production_orders_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE production_orders (
+                                   id NUMBER PRIMARY KEY,
+                                   created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                                   total_value NUMBER(19, 2) NOT NULL
+);
+
+CREATE TABLE production_order_items (
+                                        order_id NUMBER NOT NULL,
+                                        product_id NUMBER NOT NULL,
+                                        product_name VARCHAR2(255) NOT NULL,
+                                        units NUMBER(10) NOT NULL,
+                                        unit_price NUMBER(19, 2) NOT NULL,
+                                        CONSTRAINT pk_production_order_items PRIMARY KEY (order_id, product_id),
+                                        CONSTRAINT fk_poi_order FOREIGN KEY (order_id)
+                                            REFERENCES production_orders(id) ON DELETE CASCADE,
+                                        CONSTRAINT ck_poi_units CHECK (units > 0)
+);
+
+CREATE TABLE production_order_materials (
+                                            order_id NUMBER NOT NULL,
+                                            material_id NUMBER NOT NULL,
+                                            quantity NUMBER(19, 2) NOT NULL,
+                                            CONSTRAINT pk_production_order_materials PRIMARY KEY (order_id, material_id),
+                                            CONSTRAINT fk_pom_order FOREIGN KEY (order_id)
+                                                REFERENCES production_orders(id) ON DELETE CASCADE
+);
@@ -0,0 +1,23 @@
+CREATE SEQUENCE stock_movements_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE stock_movements (
+                                 id NUMBER PRIMARY KEY,
+                                 material_id NUMBER NOT NULL,
+                                 delta NUMBER(19, 2) NOT NULL,
+                                 reason VARCHAR2(30) NOT NULL,
+                                 reference_id NUMBER,
+                                 created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_sm_material_created ON stock_movements (material_id, created_at);
+CREATE INDEX idx_sm_created ON stock_movements (created_at);
+
+CREATE TABLE stock_snapshots (
+                                 material_id NUMBER NOT NULL,
+                                 taken_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                                 stock_quantity NUMBER(19, 2) NOT NULL,
+                                 CONSTRAINT pk_stock_snapshots PRIMARY KEY (material_id, taken_at)
+);
+
+INSERT INTO stock_snapshots (material_id, taken_at, stock_quantity)
+SELECT id, CURRENT_TIMESTAMP, stock_quantity FROM raw_materials;
@@ -0,0 +1,3 @@
+ALTER TABLE products ADD version NUMBER(19) DEFAULT 0 NOT NULL;
+
+ALTER TABLE raw_materials ADD version NUMBER(19) DEFAULT 0 NOT NULL;
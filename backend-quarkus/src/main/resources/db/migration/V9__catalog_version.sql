@@ -0,0 +1,7 @@
+CREATE TABLE catalog_version (
+                                 id NUMBER PRIMARY KEY CHECK (id = 1),
+                                 version NUMBER(19) NOT NULL,
+                                 changed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO catalog_version (id, version, changed_at) VALUES (1, 0, CURRENT_TIMESTAMP);
@@ -0,0 +1,117 @@
+package com.autoflex.inventory.application.cache;
+
+import com.autoflex.inventory.application.service.ProductMaterialService;
+import com.autoflex.inventory.application.service.ProductService;
+import com.autoflex.inventory.application.service.RawMaterialService;
+import com.autoflex.inventory.builders.ProductBuilder;
+import com.autoflex.inventory.builders.RawMaterialBuilder;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.presentation.dto.CacheRegionStatsDTO;
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductMaterialUpdateDTO;
+import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
+import com.autoflex.inventory.presentation.dto.SecondLevelCacheStatsDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class CatalogCacheRegionsTest {
+
+  @Inject
+  CatalogCacheRegions cacheRegions;
+
+  @Inject
+  ProductService productService;
+
+  @Inject
+  ProductMaterialService productMaterialService;
+
+  @Inject
+  RawMaterialService rawMaterialService;
+
+  @BeforeEach
+  void setUp() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      Product.deleteAll();
+      RawMaterial.deleteAll();
+    });
+  }
+
+  @Test
+  void shouldServeTheNewFormulaAfterMaterialsAreReplaced() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withMaterial(steel, 2.0).persist());
+    assertEquals(List.of(steel.id), materialIds(product.id));
+    assertEquals(List.of(steel.id), materialIds(product.id));
+
+    productMaterialService.updateMaterialInProduct(product.id,
+            new ProductMaterialUpdateDTO(List.of(new MaterialAmountDTO(copper.id, 3.0))));
+
+    assertEquals(List.of(copper.id), materialIds(product.id));
+  }
+
+  @Test
+  void shouldDropFormulaLinesRemovedByDeletingTheirMaterial() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withMaterial(steel, 2.0).persist());
+    assertEquals(List.of(steel.id), materialIds(product.id));
+
+    rawMaterialService.deleteRawMaterialById(steel.id);
+
+    assertEquals(List.of(), materialIds(product.id));
+  }
+
+  @Test
+  void shouldKeepCachedFormulasWhenARawMaterialIsCreated() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withMaterial(steel, 2.0).persist());
+    lazyMaterialCount(product.id);
+    long before = regionHits(cacheRegions.stats(), CatalogCacheRegions.PRODUCT_FORMULAS);
+
+    rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Copper", 5.0));
+
+    assertEquals(1, lazyMaterialCount(product.id));
+    assertTrue(regionHits(cacheRegions.stats(), CatalogCacheRegions.PRODUCT_FORMULAS) > before);
+  }
+
+  @Test
+  void shouldCountHitsOnTheRawMaterialRegion() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().persist());
+    long before = regionHits(cacheRegions.stats(), CatalogCacheRegions.RAW_MATERIALS);
+
+    QuarkusTransaction.requiringNew().run(() -> rawMaterialService.getRawMaterialById(steel.id));
+    QuarkusTransaction.requiringNew().run(() -> rawMaterialService.getRawMaterialById(steel.id));
+
+    SecondLevelCacheStatsDTO stats = cacheRegions.stats();
+    assertTrue(stats.statisticsEnabled());
+    assertTrue(regionHits(stats, CatalogCacheRegions.RAW_MATERIALS) > before);
+  }
+
+  private List<Long> materialIds(Long productId) {
+    return QuarkusTransaction.requiringNew().call(() -> productService.getProductById(productId).materials.stream()
+            .map(pm -> pm.rawMaterial.id)
+            .toList());
+  }
+
+  // Initializing the collection outside a fetch join is what reads it from the cache
+  private int lazyMaterialCount(Long productId) {
+    return QuarkusTransaction.requiringNew().call(() -> Product.<Product>findById(productId).materials.size());
+  }
+
+  private static long regionHits(SecondLevelCacheStatsDTO stats, String region) {
+    return stats.regions().stream()
+            .filter(r -> r.region().equals(region))
+            .mapToLong(CacheRegionStatsDTO::hits)
+            .findFirst()
+            .orElseThrow();
+  }
+}
@@ -0,0 +1,90 @@
+package com.autoflex.inventory.application.cache;
+
+import com.autoflex.inventory.application.service.RawMaterialService;
+import com.autoflex.inventory.domain.CatalogVersion;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class CatalogVersionTrackerTest {
+
+  @Inject
+  CatalogVersionTracker tracker;
+
+  @Inject
+  RawMaterialService rawMaterialService;
+
+  @BeforeEach
+  void setUp() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      Product.deleteAll();
+      RawMaterial.deleteAll();
+    });
+    tracker.refresh();
+  }
+
+  @Test
+  void shouldMoveOnceForATransactionWithManyChanges() {
+    long before = tracker.current().version();
+
+    rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+    assertEquals(before + 1, tracker.current().version());
+
+    QuarkusTransaction.requiringNew().run(() -> {
+      rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Copper", 10.0));
+      rawMaterialService.saveRawMaterials(List.of(
+              new RawMaterialRequestDTO("Tin", 5.0), new RawMaterialRequestDTO("Zinc", 5.0)));
+    });
+    assertEquals(before + 2, tracker.current().version());
+    assertEquals(before + 2, QuarkusTransaction.requiringNew().call(CatalogVersion::current).version());
+  }
+
+  @Test
+  void shouldKeepTheVersionWhenTheWriteIsRolledBack() {
+    CatalogVersion.Stamp before = tracker.current();
+
+    assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+      rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+      throw new IllegalStateException("Rolled back");
+    }));
+
+    assertEquals(before, tracker.current());
+    assertEquals(before.version(), QuarkusTransaction.requiringNew().call(CatalogVersion::current).version());
+  }
+
+  @Test
+  void shouldBumpTheRowInTheWritingTransactionAndPublishItAfterCommit() {
+    CatalogVersion.Stamp before = tracker.current();
+
+    QuarkusTransaction.requiringNew().run(() -> {
+      rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+      assertEquals(before.version() + 1, CatalogVersion.current().version());
+      assertEquals(before, tracker.current());
+    });
+
+    assertEquals(before.version() + 1, tracker.current().version());
+  }
+
+  @Test
+  void shouldPickUpVersionsCommittedByOtherInstancesOnRefresh() {
+    CatalogVersion.Stamp before = tracker.current();
+
+    CatalogVersion.Stamp elsewhere = QuarkusTransaction.requiringNew().call(() -> CatalogVersion.bump(Instant.now()));
+    assertEquals(before, tracker.current());
+
+    tracker.refresh();
+    assertEquals(elsewhere.version(), tracker.current().version());
+    assertTrue(tracker.current().version() > before.version());
+  }
+}
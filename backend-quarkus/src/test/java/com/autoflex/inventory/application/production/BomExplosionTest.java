@@ -0,0 +1,48 @@
+package com.autoflex.inventory.application.production;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BomExplosionTest {
+
+  @Test
+  void shouldMultiplyNestedRequirementsAndMergeSharedMaterials() {
+    BomExplosion explosion = BomExplosion.builder()
+            .addMaterial(1L, 100L, 1000)
+            .addComponent(1L, 2L, 200)
+            .addMaterial(2L, 100L, 100)
+            .addMaterial(2L, 200L, 300)
+            .addComponent(2L, 3L, 400)
+            .addMaterial(3L, 300L, 50)
+            .build();
+
+    BomExplosion.Requirement requirement = explosion.explode(1L);
+
+    assertArrayEquals(new long[]{100L, 200L, 300L}, requirement.materialIds());
+    assertArrayEquals(new long[]{1_200, 600, 400}, requirement.quantities());
+    assertSame(requirement, explosion.explode(1L));
+    assertArrayEquals(new long[]{100L, 200L, 300L}, explosion.explode(2L).materialIds());
+  }
+
+  @Test
+  void shouldExplodeDeepChainsWithoutRecursion() {
+    BomExplosion.Builder builder = BomExplosion.builder().addMaterial(0L, 100L, 100);
+    for (long p = 1; p <= 50_000; p++) {
+      builder.addComponent(p, p - 1, 100);
+    }
+
+    assertEquals(100, builder.build().explode(50_000L).quantity(0));
+  }
+
+  @Test
+  void shouldRejectCycles() {
+    BomExplosion explosion = BomExplosion.builder()
+            .addComponent(1L, 2L, 100)
+            .addComponent(2L, 3L, 100)
+            .addComponent(3L, 1L, 100)
+            .build();
+
+    assertThrows(IllegalStateException.class, () -> explosion.explode(1L));
+  }
+}
@@ -0,0 +1,38 @@
+package com.autoflex.inventory.application.production;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BottleneckReportTest {
+
+  @Test
+  void shouldRankMaterialsByValueOfTheUnitsTheyBlock() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 1_000)
+            .addMaterial(2L, 10_000)
+            .addProduct(1L, "Robot", BigDecimal.valueOf(500))
+            .addLine(1L, 400)
+            .addLine(2L, 500)
+            .addProduct(2L, "Panel", BigDecimal.valueOf(200))
+            .addLine(2L, 3_000)
+            .addProduct(3L, "Sensor", BigDecimal.valueOf(50))
+            .addLine(1L, 300)
+            .addProduct(4L, "Manual", BigDecimal.valueOf(5))
+            .build();
+
+    List<BottleneckReport.MaterialBottleneck> report = BottleneckReport.rank(IncrementalGreedyPlan.compute(snapshot).state());
+
+    assertEquals(2, report.size());
+    assertEquals(snapshot.materialOrdinal(1L), report.get(0).material());
+    assertEquals(2, report.get(0).limitedProducts());
+    assertEquals(55_000, report.get(0).blockedValueCents());
+    assertEquals(200 + 100, report.get(0).shortfall());
+    assertEquals(snapshot.materialOrdinal(2L), report.get(1).material());
+    assertEquals(20_000, report.get(1).blockedValueCents());
+    assertEquals(3_000, report.get(1).shortfall());
+  }
+}
@@ -0,0 +1,75 @@
+package com.autoflex.inventory.application.production;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BranchAndBoundPlannerTest {
+
+  @Test
+  void shouldFindBetterMixThanPriceOrderedGreedy() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addProduct(1L, "Premium", BigDecimal.valueOf(100))
+            .addLine(1L, 600)
+            .addProduct(2L, "Compact", BigDecimal.valueOf(60))
+            .addLine(1L, 500)
+            .build();
+    long[] greedy = new GreedyPlanner().plan(snapshot).units();
+
+    ProductionPlan plan = new BranchAndBoundPlanner(Duration.ofSeconds(5), 1_000_000).solve(snapshot, greedy);
+
+    assertArrayEquals(new long[]{1, 0}, greedy);
+    assertArrayEquals(new long[]{0, 2}, plan.units());
+    assertTrue(plan.optimal());
+  }
+
+  @Test
+  void shouldRespectEveryMaterialConstraint() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 2000)
+            .addMaterial(2L, 1200)
+            .addMaterial(3L, 1400)
+            .addProduct(1L, "A", BigDecimal.valueOf(50))
+            .addLine(1L, 400).addLine(2L, 200)
+            .addProduct(2L, "B", BigDecimal.valueOf(40))
+            .addLine(2L, 300).addLine(3L, 100)
+            .addProduct(3L, "C", BigDecimal.valueOf(30))
+            .addLine(1L, 100).addLine(3L, 500)
+            .build();
+
+    ProductionPlan plan = new BranchAndBoundPlanner(Duration.ofSeconds(5), 1_000_000)
+            .solve(snapshot, new long[snapshot.productCount()]);
+
+    long[] used = new long[snapshot.materialCount()];
+    for (int p = 0; p < snapshot.productCount(); p++) {
+      for (int line = snapshot.rowStart(p); line < snapshot.rowEnd(p); line++) {
+        used[snapshot.lineMaterial(line)] += snapshot.lineRequired(line) * plan.units()[p];
+      }
+    }
+    for (int m = 0; m < snapshot.materialCount(); m++) {
+      assertTrue(used[m] <= snapshot.stock(m));
+    }
+    assertTrue(plan.optimal());
+  }
+
+  @Test
+  void shouldReturnIncumbentAndReportNotProvenWhenNodeLimitIsExhausted() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addProduct(1L, "Premium", BigDecimal.valueOf(100))
+            .addLine(1L, 600)
+            .addProduct(2L, "Compact", BigDecimal.valueOf(60))
+            .addLine(1L, 500)
+            .build();
+    long[] greedy = {1, 0};
+
+    ProductionPlan plan = new BranchAndBoundPlanner(Duration.ofSeconds(5), 0).solve(snapshot, greedy);
+
+    assertArrayEquals(greedy, plan.units());
+    assertFalse(plan.optimal());
+  }
+}
@@ -0,0 +1,55 @@
+package com.autoflex.inventory.application.production;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CapacityEvaluatorTest {
+
+  private BomSnapshot randomCatalog(int products, int materials) {
+    Random random = new Random(42);
+    BomSnapshot.Builder builder = BomSnapshot.builder();
+    for (int m = 0; m < materials; m++) {
+      builder.addMaterial(m, random.nextInt(1000));
+    }
+    for (int p = 0; p < products; p++) {
+      builder.addProduct(p, "Product " + p, BigDecimal.valueOf(1 + random.nextInt(500)));
+      for (int m = 0; m < materials; m++) {
+        if (random.nextInt(4) == 0) builder.addLine(m, 1 + random.nextInt(50));
+      }
+    }
+    return builder.build();
+  }
+
+  @Test
+  void shouldMatchSequentialEvaluationWhenRunningInParallel() {
+    BomSnapshot snapshot = randomCatalog(5000, 20);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      long[] sequential = CapacityEvaluator.sequential().evaluate(snapshot);
+      long[] parallel = new CapacityEvaluator(pool, 1).evaluate(snapshot);
+
+      assertArrayEquals(sequential, parallel);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void shouldProduceSameGreedyPlanWithParallelCapacities() {
+    BomSnapshot snapshot = randomCatalog(3000, 10);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      long[] expected = new GreedyPlanner().plan(snapshot).units();
+      long[] actual = IncrementalGreedyPlan.compute(snapshot, new CapacityEvaluator(pool, 1)).state().greedy().units();
+
+      assertArrayEquals(expected, actual);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.Quantity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GreedyPlannerTest {
+
+  @Test
+  void shouldAllocateStockInSnapshotOrder() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addMaterial(2L, 10_000)
+            .addProduct(1L, "Robot", BigDecimal.valueOf(500))
+            .addLine(1L, 400)
+            .addLine(2L, 500)
+            .addProduct(2L, "Sensor", BigDecimal.valueOf(50))
+            .addLine(1L, 100)
+            .build();
+
+    ProductionPlan plan = new GreedyPlanner().plan(snapshot);
+
+    assertArrayEquals(new long[]{2, 2}, plan.units());
+  }
+
+  @Test
+  void shouldSkipProductsWithoutFormula() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addProduct(1L, "Empty", BigDecimal.valueOf(500))
+            .addProduct(2L, "Sensor", BigDecimal.valueOf(50))
+            .addLine(1L, 300)
+            .build();
+
+    ProductionPlan plan = new GreedyPlanner().plan(snapshot);
+
+    assertArrayEquals(new long[]{0, 3}, plan.units());
+  }
+
+  @Test
+  void shouldDivideDecimalQuantitiesExactly() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, Quantity.toHundredths(0.3))
+            .addProduct(1L, "Washer", BigDecimal.valueOf(1))
+            .addLine(1L, Quantity.toHundredths(0.1))
+            .build();
+
+    ProductionPlan plan = new GreedyPlanner().plan(snapshot);
+
+    assertArrayEquals(new long[]{3}, plan.units());
+  }
+
+  @Test
+  void shouldRejectLinesReferencingUnknownMaterials() {
+    BomSnapshot.Builder builder = BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addProduct(1L, "Robot", BigDecimal.valueOf(500));
+
+    assertThrows(IllegalArgumentException.class, () -> builder.addLine(99L, 100));
+  }
+}
@@ -0,0 +1,108 @@
+package com.autoflex.inventory.application.production;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalGreedyPlanTest {
+
+  private BomSnapshot catalog() {
+    return BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addMaterial(2L, 10_000)
+            .addMaterial(3L, 3000)
+            .addProduct(1L, "Robot", BigDecimal.valueOf(500))
+            .addLine(1L, 400)
+            .addLine(2L, 1000)
+            .addProduct(2L, "Panel", BigDecimal.valueOf(200))
+            .addLine(2L, 2000)
+            .addProduct(3L, "Sensor", BigDecimal.valueOf(50))
+            .addLine(3L, 300)
+            .build();
+  }
+
+  @Test
+  void shouldMatchFullRecomputationAfterStockChange() {
+    BomSnapshot snapshot = catalog();
+    IncrementalGreedyPlan plan = IncrementalGreedyPlan.compute(snapshot);
+
+    plan.applyStockChange(snapshot.materialOrdinal(1L), 4000);
+
+    long[] expected = new GreedyPlanner().plan(snapshot.withStock(snapshot.materialOrdinal(1L), 4000)).units();
+    assertArrayEquals(expected, plan.state().greedy().units());
+    assertArrayEquals(new long[]{10, 0, 10}, plan.state().greedy().units());
+  }
+
+  @Test
+  void shouldOnlyEvaluateProductsReachedThroughChangedMaterials() {
+    BomSnapshot snapshot = catalog();
+    IncrementalGreedyPlan plan = IncrementalGreedyPlan.compute(snapshot);
+
+    int evaluated = plan.applyStockChange(snapshot.materialOrdinal(3L), 6000);
+
+    assertEquals(1, evaluated);
+    assertArrayEquals(new long[]{2, 4, 20}, plan.state().greedy().units());
+  }
+
+  @Test
+  void shouldRecomputeStandaloneCapacityOfAffectedProducts() {
+    BomSnapshot snapshot = catalog();
+    IncrementalGreedyPlan plan = IncrementalGreedyPlan.compute(snapshot);
+
+    plan.applyStockChange(snapshot.materialOrdinal(2L), 4000);
+
+    assertArrayEquals(new long[]{2, 2, 10}, plan.state().capacity());
+  }
+
+  @Test
+  void shouldTrackLimitingMaterialThroughRepairs() {
+    BomSnapshot snapshot = catalog();
+    IncrementalGreedyPlan plan = IncrementalGreedyPlan.compute(snapshot);
+
+    PlanningState before = plan.state();
+    assertEquals(snapshot.materialOrdinal(1L), before.limitingMaterial(0));
+    assertEquals(200, before.leftover(0));
+    assertEquals(200, before.shortfall(0));
+
+    plan.applyStockChange(snapshot.materialOrdinal(1L), 4_000);
+
+    PlanningState repaired = plan.state();
+    PlanningState fresh = IncrementalGreedyPlan.compute(snapshot.withStock(snapshot.materialOrdinal(1L), 4_000)).state();
+    assertArrayEquals(fresh.limitingLine(), repaired.limitingLine());
+    assertEquals(snapshot.materialOrdinal(1L), repaired.limitingMaterial(0));
+    assertEquals(snapshot.materialOrdinal(2L), repaired.limitingMaterial(1));
+    assertEquals(2_000, repaired.shortfall(1));
+  }
+
+  @Test
+  void shouldShareTheStateBetweenReadsUntilStockChanges() {
+    BomSnapshot snapshot = catalog();
+    IncrementalGreedyPlan plan = IncrementalGreedyPlan.compute(snapshot);
+
+    PlanningState first = plan.state();
+    assertSame(first, plan.state());
+
+    plan.applyStockChange(snapshot.materialOrdinal(3L), 6000);
+
+    assertNotSame(first, plan.state());
+    assertArrayEquals(new long[]{2, 4, 10}, first.greedy().units());
+  }
+
+  @Test
+  void shouldReportFirstShortLineOfProductsThatCannotBeBuilt() {
+    BomSnapshot snapshot = catalog();
+    IncrementalGreedyPlan plan = IncrementalGreedyPlan.compute(snapshot);
+
+    plan.applyStockChange(snapshot.materialOrdinal(1L), 300);
+
+    PlanningState state = plan.state();
+    assertEquals(0, state.capacity()[0]);
+    assertEquals(0, state.greedy().units()[0]);
+    assertEquals(snapshot.materialOrdinal(1L), state.limitingMaterial(0));
+    assertEquals(100, state.shortfall(0));
+    assertArrayEquals(IncrementalGreedyPlan.compute(snapshot.withStock(snapshot.materialOrdinal(1L), 300)).state().limitingLine(),
+            state.limitingLine());
+  }
+}
@@ -0,0 +1,93 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.presentation.dto.ProductionSuggestionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankedSuggestionsTest {
+
+  private record Line(String name, int units, long price) {
+  }
+
+  private Line suggestion(String name, int units, long price) {
+    return new Line(name, units, price);
+  }
+
+  private RankedSuggestions ranked(List<Line> lines) {
+    BomSnapshot.Builder builder = BomSnapshot.builder();
+    long[] units = new long[lines.size()];
+    for (int i = 0; i < lines.size(); i++) {
+      builder.addProduct(i + 1L, lines.get(i).name(), BigDecimal.valueOf(lines.get(i).price()));
+      units[i] = lines.get(i).units();
+    }
+    return new RankedSuggestions(ProductionStrategy.GREEDY, builder.build(), new ProductionPlan(units, false, 0));
+  }
+
+  @Test
+  void shouldReturnHighestTotalValuesFirst() {
+    RankedSuggestions ranked = ranked(List.of(
+            suggestion("Robot", 1, 500),
+            suggestion("Panel", 4, 200),
+            suggestion("Sensor", 20, 50),
+            suggestion("Cable", 3, 10)
+    ));
+
+    List<String> top = ranked.top(2, Long.MIN_VALUE).suggestions().stream().map(ProductionSuggestionDTO::productName).toList();
+
+    assertEquals(List.of("Sensor", "Panel"), top);
+  }
+
+  @Test
+  void shouldFilterByMinimumTotalValue() {
+    RankedSuggestions ranked = ranked(List.of(
+            suggestion("Robot", 1, 500),
+            suggestion("Panel", 4, 200),
+            suggestion("Cable", 3, 10)
+    ));
+
+    List<String> top = ranked.top(10, 50_000).suggestions().stream().map(ProductionSuggestionDTO::productName).toList();
+
+    assertEquals(List.of("Panel", "Robot"), top);
+  }
+
+  @Test
+  void shouldTotalOnlyTheReturnedSuggestions() {
+    RankedSuggestions ranked = ranked(List.of(
+            suggestion("Robot", 1, 500),
+            suggestion("Panel", 4, 200),
+            suggestion("Sensor", 20, 50),
+            suggestion("Idle", 0, 900)
+    ));
+
+    assertEquals(0, BigDecimal.valueOf(1800).compareTo(ranked.top(2, Long.MIN_VALUE).totalValue()));
+    assertEquals(0, BigDecimal.valueOf(2300).compareTo(ranked.plan().totalValue()));
+    assertEquals(3, ranked.plan().suggestions().size());
+  }
+
+  @Test
+  void shouldMatchFullSortOnRandomPlans() {
+    Random random = new Random(7);
+    for (int round = 0; round < 200; round++) {
+      List<Line> lines = new ArrayList<>();
+      for (int i = 0; i < 1 + random.nextInt(50); i++) {
+        lines.add(suggestion("P" + i, random.nextInt(6), 1 + random.nextInt(20)));
+      }
+      int limit = 1 + random.nextInt(10);
+      RankedSuggestions ranked = ranked(lines);
+
+      List<ProductionSuggestionDTO> expected = ranked.plan().suggestions().stream()
+              .sorted(Comparator.comparing(ProductionSuggestionDTO::totalValue).reversed())
+              .limit(limit)
+              .toList();
+
+      assertEquals(expected, ranked.top(limit, Long.MIN_VALUE).suggestions());
+    }
+  }
+}
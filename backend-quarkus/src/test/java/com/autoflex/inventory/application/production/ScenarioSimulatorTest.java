@@ -0,0 +1,34 @@
+package com.autoflex.inventory.application.production;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScenarioSimulatorTest {
+
+  @Test
+  void shouldPlanEveryScenarioAgainstItsOwnStock() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addProduct(1L, "Robot", BigDecimal.valueOf(100))
+            .addLine(1L, 200)
+            .build();
+    List<long[]> scenarios = new ArrayList<>();
+    for (int s = 0; s < 100; s++) {
+      scenarios.add(new long[]{s * 100L});
+    }
+
+    List<ProductionPlan> plans = new ScenarioSimulator(ForkJoinPool.commonPool()).simulate(snapshot, scenarios);
+
+    assertEquals(100, plans.size());
+    for (int s = 0; s < 100; s++) {
+      assertEquals(s / 2, plans.get(s).units()[0]);
+    }
+    assertEquals(1_000, snapshot.stock(0));
+  }
+}
@@ -0,0 +1,53 @@
+package com.autoflex.inventory.application.production;
+
+import com.autoflex.inventory.domain.FormulaLine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingGreedyAllocatorTest {
+
+  @Test
+  void shouldEmitSameUnitsAsSnapshotGreedy() {
+    BomSnapshot snapshot = BomSnapshot.builder()
+            .addMaterial(1L, 1000)
+            .addMaterial(2L, 10_000)
+            .addProduct(1L, "Robot", BigDecimal.valueOf(500))
+            .addLine(1L, 400)
+            .addLine(2L, 500)
+            .addProduct(2L, "Sensor", BigDecimal.valueOf(50))
+            .addLine(1L, 100)
+            .build();
+    List<String> emitted = new ArrayList<>();
+
+    StreamingGreedyAllocator allocator = new StreamingGreedyAllocator(
+            Map.of(1L, 0, 2L, 1), new long[]{1_000, 10_000},
+            (product, units) -> emitted.add(product.productName() + ":" + units));
+    allocator.accept(new FormulaLine(1L, "Robot", BigDecimal.valueOf(500), 1L, 4.0));
+    allocator.accept(new FormulaLine(1L, "Robot", BigDecimal.valueOf(500), 2L, 5.0));
+    allocator.accept(new FormulaLine(2L, "Sensor", BigDecimal.valueOf(50), 1L, 1.0));
+    allocator.finish();
+
+    assertArrayEquals(new long[]{2, 2}, new GreedyPlanner().plan(snapshot).units());
+    assertEquals(List.of("Robot:2", "Sensor:2"), emitted);
+  }
+
+  @Test
+  void shouldEmitEachProductBeforeReadingTheNextOne() {
+    List<String> emitted = new ArrayList<>();
+    StreamingGreedyAllocator allocator = new StreamingGreedyAllocator(
+            Map.of(1L, 0), new long[]{1_000},
+            (product, units) -> emitted.add(product.productName()));
+
+    allocator.accept(new FormulaLine(1L, "Robot", BigDecimal.valueOf(500), 1L, 4.0));
+    assertTrue(emitted.isEmpty());
+
+    allocator.accept(new FormulaLine(2L, "Sensor", BigDecimal.valueOf(50), 1L, 1.0));
+    assertEquals(List.of("Robot"), emitted);
+  }
+}
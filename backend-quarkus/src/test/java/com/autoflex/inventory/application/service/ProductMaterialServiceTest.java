@@ -10,6 +10,7 @@ import com.autoflex.inventory.presentation.dto.ProductMaterialUpdateDTO;
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 import org.junit.jupiter.api.Test;
 
@@ -170,6 +171,7 @@ public class ProductMaterialServiceTest {
             )
     );
 
+    Product.getEntityManager().flush();
     Product.getEntityManager().clear();
     List<ProductMaterial> result = productMaterialService.updateMaterialInProduct(product.id, dto);
 
@@ -371,5 +373,65 @@ public class ProductMaterialServiceTest {
     assertEquals(1, result.size());
     assertEquals(5.0, result.getFirst().requiredQuantity);
   }
-}
 
+  @Test
+  @TestTransaction
+  void shouldAddSeveralMaterialsToProductAtOnce() {
+    Product product = ProductBuilder.aProduct().withName("Robot").persist();
+    RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").persist();
+    RawMaterial copper = RawMaterialBuilder.aRawMaterial().withName("Copper").persist();
+
+    productMaterialService.addMaterialsToProduct(product.id, List.of(
+            new MaterialAmountDTO(steel.id, 5.0),
+            new MaterialAmountDTO(copper.id, 2.5)
+    ));
+
+    List<ProductMaterial> result = ProductMaterial.findAllByProductId(product.id);
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  @TestTransaction
+  void shouldNotAddAnyMaterialWhenSomeAreMissing() {
+    Product product = ProductBuilder.aProduct().withName("Robot").persist();
+    RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").persist();
+
+    NotFoundException exception = assertThrows(NotFoundException.class, () ->
+            productMaterialService.addMaterialsToProduct(product.id, List.of(
+                    new MaterialAmountDTO(steel.id, 5.0),
+                    new MaterialAmountDTO(99999L, 1.0),
+                    new MaterialAmountDTO(99998L, 1.0)
+            )));
+
+    assertEquals("Raw materials not found: [99998, 99999]", exception.getMessage());
+    assertTrue(ProductMaterial.findAllByProductId(product.id).isEmpty());
+  }
+
+  @Test
+  @TestTransaction
+  void shouldRejectMaterialAlreadyInProduct() {
+    RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").persist();
+    Product product = ProductBuilder.aProduct().withName("Robot").withMaterial(steel, 5.0).persist();
+
+    assertThrows(BadRequestException.class, () ->
+            productMaterialService.addMaterialToProduct(product.id, new MaterialAmountDTO(steel.id, 1.0)));
+  }
+
+  @Test
+  @TestTransaction
+  void shouldReportEveryMissingIdWhenUpdatingFormula() {
+    RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").persist();
+    Product product = ProductBuilder.aProduct().withName("Robot").withMaterial(steel, 5.0).persist();
+
+    ProductMaterialUpdateDTO dto = new ProductMaterialUpdateDTO(List.of(
+            new MaterialAmountDTO(steel.id, 5.0),
+            new MaterialAmountDTO(99999L, 1.0),
+            new MaterialAmountDTO(99998L, 1.0)
+    ));
+
+    NotFoundException exception = assertThrows(NotFoundException.class, () ->
+            productMaterialService.updateMaterialInProduct(product.id, dto));
+
+    assertEquals("Raw materials not found: [99998, 99999]", exception.getMessage());
+  }
+}
@@ -10,6 +10,8 @@ import jakarta.ws.rs.NotFoundException;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -415,5 +417,44 @@ public class RawMaterialServiceTest {
 
     assertNotNull(rawMaterialService.getRawMaterialById(material2.id));
   }
-}
 
+  @Test
+  @TestTransaction
+  void shouldResolveRawMaterialsByIdsInOneLookup() {
+    RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").persist();
+    RawMaterial copper = RawMaterialBuilder.aRawMaterial().withName("Copper").persist();
+
+    Map<Long, RawMaterial> result = rawMaterialService.getRawMaterialsByIds(List.of(steel.id, copper.id, steel.id));
+
+    assertEquals(2, result.size());
+    assertEquals("Steel", result.get(steel.id).name);
+    assertEquals("Copper", result.get(copper.id).name);
+  }
+
+  @Test
+  @TestTransaction
+  void shouldReportEveryMissingIdWhenResolvingRawMaterials() {
+    RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").persist();
+
+    NotFoundException exception = assertThrows(NotFoundException.class, () ->
+            rawMaterialService.getRawMaterialsByIds(List.of(99999L, steel.id, 99998L)));
+
+    assertEquals("Raw materials not found: [99998, 99999]", exception.getMessage());
+  }
+
+  @Test
+  @TestTransaction
+  void shouldCreateRawMaterialsInBulkWithDistinctIds() {
+    long initialCount = RawMaterial.count();
+    List<RawMaterialRequestDTO> dtos = IntStream.rangeClosed(1, 1_200)
+            .mapToObj(i -> new RawMaterialRequestDTO("Bulk Material " + i, (double) i))
+            .toList();
+
+    List<RawMaterial> result = rawMaterialService.saveRawMaterials(dtos);
+
+    assertEquals(1_200, result.size());
+    assertEquals(1_200, result.stream().map(material -> material.id).distinct().count());
+    assertEquals(initialCount + 1_200, RawMaterial.count());
+    assertEquals(1_200.0, RawMaterial.<RawMaterial>findById(result.getLast().id).stockQuantity);
+  }
+}
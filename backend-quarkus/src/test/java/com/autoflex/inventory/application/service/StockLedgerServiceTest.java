@@ -0,0 +1,180 @@
+package com.autoflex.inventory.application.service;
+
+import com.autoflex.inventory.builders.ProductBuilder;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.domain.StockMovement;
+import com.autoflex.inventory.domain.StockMovementReason;
+import com.autoflex.inventory.domain.StockOperation;
+import com.autoflex.inventory.presentation.dto.ProductionOrderDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderLineDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderRequestDTO;
+import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
+import com.autoflex.inventory.presentation.dto.StockAtDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class StockLedgerServiceTest {
+
+  @Inject
+  StockLedgerService stockLedgerService;
+
+  @Inject
+  RawMaterialService rawMaterialService;
+
+  @Inject
+  StockService stockService;
+
+  @Inject
+  ProductionOrderService productionOrderService;
+
+  @Test
+  void shouldRebuildPastStockFromTheMovements() {
+    RawMaterial steel = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+    Instant created = Instant.now();
+    stockService.consume(steel.id, 3.0, false);
+    Instant consumed = Instant.now();
+    rawMaterialService.updateRawMaterial(steel.id, new RawMaterialRequestDTO(null, 20.0));
+
+    assertEquals(10.0, stockLedgerService.getStockAt(steel.id, created).stockQuantity());
+    assertEquals(7.0, stockLedgerService.getStockAt(steel.id, consumed).stockQuantity());
+    StockAtDTO now = stockLedgerService.getStockAt(steel.id, Instant.now());
+    assertEquals(20.0, now.stockQuantity());
+    assertEquals(3, now.replayedMovements());
+    assertNull(now.snapshotTakenAt());
+  }
+
+  @Test
+  void shouldReadFromTheSnapshotAfterCompaction() {
+    RawMaterial steel = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+    stockService.consume(steel.id, 2.5, false);
+
+    assertTrue(stockLedgerService.compact() > 0);
+    Instant compacted = Instant.now();
+    stockService.consume(steel.id, 1.0, false);
+
+    StockAtDTO atCompaction = stockLedgerService.getStockAt(steel.id, compacted);
+    assertEquals(7.5, atCompaction.stockQuantity());
+    assertEquals(0, atCompaction.replayedMovements());
+    assertNotNull(atCompaction.snapshotTakenAt());
+
+    StockAtDTO now = stockLedgerService.getStockAt(steel.id, Instant.now());
+    assertEquals(6.5, now.stockQuantity());
+    assertEquals(1, now.replayedMovements());
+    assertEquals(1, stockLedgerService.compact());
+    assertEquals(0, stockLedgerService.compact());
+  }
+
+  @Test
+  void shouldIncludeMovementsThatCommitWhileCompactionRuns() throws Exception {
+    RawMaterial steel = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+    CountDownLatch consumed = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> QuarkusTransaction.requiringNew().run(() -> {
+      stockService.applyInTransaction(StockOperation.CONSUME, new TreeMap<>(Map.of(steel.id, 4.0)), StockMovementReason.CONSUMPTION, null);
+      consumed.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    assertTrue(consumed.await(10, TimeUnit.SECONDS));
+
+    // Stamped before compaction starts, committed only once compaction is waiting for the row
+    CompletableFuture<Integer> compaction = CompletableFuture.supplyAsync(stockLedgerService::compact);
+    Thread.sleep(200);
+    release.countDown();
+    writer.get(10, TimeUnit.SECONDS);
+    assertTrue(compaction.get(10, TimeUnit.SECONDS) > 0);
+
+    StockAtDTO now = stockLedgerService.getStockAt(steel.id, Instant.now());
+    assertEquals(6.0, now.stockQuantity());
+    assertEquals(0, now.replayedMovements());
+  }
+
+  @Test
+  void shouldSnapshotMovementsStampedBeforeTheLastCompactionButCommittedAfterIt() throws Exception {
+    RawMaterial steel = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+    RawMaterial copper = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Copper", 10.0));
+    stockLedgerService.compact();
+    CountDownLatch consumed = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> QuarkusTransaction.requiringNew().run(() -> {
+      stockService.applyInTransaction(StockOperation.CONSUME, new TreeMap<>(Map.of(steel.id, 4.0)), StockMovementReason.CONSUMPTION, null);
+      consumed.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    try {
+      assertTrue(consumed.await(10, TimeUnit.SECONDS));
+      // Written around the services, which would queue behind the open consumption on the catalog version
+      QuarkusTransaction.requiringNew().run(() -> StockMovement.record(copper.id, 1.0, StockMovementReason.ADJUSTMENT));
+
+      // Snapshots copper after the pending consumption was stamped, without seeing it
+      assertEquals(1, stockLedgerService.compact());
+    } finally {
+      release.countDown();
+    }
+    writer.get(10, TimeUnit.SECONDS);
+
+    assertEquals(1, stockLedgerService.compact());
+    StockAtDTO now = stockLedgerService.getStockAt(steel.id, Instant.now());
+    assertEquals(6.0, now.stockQuantity());
+    assertEquals(0, now.replayedMovements());
+  }
+
+  @Test
+  void shouldRecordTheOrderThatConsumedStock() {
+    RawMaterial steel = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+    Product robot = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withMaterial(steel, 4.0).persist());
+
+    ProductionOrderDTO order = productionOrderService.placeOrder(
+            new ProductionOrderRequestDTO(List.of(new ProductionOrderLineDTO(robot.id, 2))));
+
+    List<StockMovement> movements = QuarkusTransaction.requiringNew().call(() ->
+            StockMovement.<StockMovement>list("materialId = ?1 order by id", steel.id));
+    assertEquals(List.of(StockMovementReason.CREATED, StockMovementReason.PRODUCTION_ORDER),
+            movements.stream().map(movement -> movement.reason).toList());
+    assertEquals(-8.0, movements.get(1).delta);
+    assertEquals(order.id(), movements.get(1).referenceId);
+    assertEquals(2.0, stockLedgerService.getStockAt(steel.id, Instant.now()).stockQuantity());
+  }
+
+  @Test
+  void shouldRecordNoMovementWhenAnUpdateLeavesTheStockAsItWas() {
+    RawMaterial steel = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+
+    rawMaterialService.updateRawMaterial(steel.id, new RawMaterialRequestDTO("Stainless Steel", null));
+    rawMaterialService.updateRawMaterial(steel.id, new RawMaterialRequestDTO(null, 10.0));
+
+    assertEquals(1, QuarkusTransaction.requiringNew().call(() -> StockMovement.count("materialId", steel.id)));
+  }
+
+  @Test
+  void shouldThrowNotFoundBeforeAnyStockWasRecorded() {
+    RawMaterial steel = rawMaterialService.saveRawMaterial(new RawMaterialRequestDTO("Steel", 10.0));
+
+    assertThrows(NotFoundException.class, () -> stockLedgerService.getStockAt(steel.id, Instant.now().minus(Duration.ofHours(1))));
+  }
+}
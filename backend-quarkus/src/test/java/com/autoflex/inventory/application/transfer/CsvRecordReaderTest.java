@@ -0,0 +1,56 @@
+package com.autoflex.inventory.application.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvRecordReaderTest {
+
+  @Test
+  void shouldReadPlainRecordsAndTrackLines() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("name,stockQuantity\r\nSteel, 10.5 \r\n\r\nCopper,3\n"));
+
+    assertEquals(List.of("name", "stockQuantity"), reader.next());
+    assertEquals(1, reader.line());
+    assertEquals(List.of("Steel", "10.5"), reader.next());
+    assertEquals(2, reader.line());
+    assertEquals(List.of("Copper", "3"), reader.next());
+    assertEquals(4, reader.line());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void shouldReadQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader(
+            "\"Plate, 2mm\",\"5\"\n\"The \"\"best\"\" bolt\",\"line one\nline two\"\nlast,\n"));
+
+    assertEquals(List.of("Plate, 2mm", "5"), reader.next());
+    assertEquals(List.of("The \"best\" bolt", "line one\nline two"), reader.next());
+    assertEquals(2, reader.line());
+    assertEquals(List.of("last", ""), reader.next());
+    assertEquals(4, reader.line());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void shouldSkipByteOrderMarkAndReadLastRecordWithoutLineBreak() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("\uFEFFname\nSteel"));
+
+    assertEquals(List.of("name"), reader.next());
+    assertEquals(List.of("Steel"), reader.next());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void shouldFailOnUnterminatedQuotedField() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("name\n\"Steel\n"));
+
+    reader.next();
+    IOException exception = assertThrows(IOException.class, reader::next);
+    assertTrue(exception.getMessage().contains("line 2"));
+  }
+}
@@ -0,0 +1,50 @@
+package com.autoflex.inventory.application.transfer;
+
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransferWriterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void shouldWriteCsvWithHeaderAndEscapedFields() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    FormulaColumn formula = new FormulaColumn(List.of(new MaterialAmountDTO(3L, 10.0), new MaterialAmountDTO(7L, 2.5)));
+
+    try (TransferWriter writer = TransferWriter.open(TransferFormat.CSV, output, objectMapper, List.of("id", "name", "price", "materials"))) {
+      writer.write(1L, "Plate, \"2mm\"", new BigDecimal("15.50"), formula);
+      writer.write(2L, "Panel", new BigDecimal("1E+3"), new FormulaColumn(List.of()));
+    }
+
+    String csv = output.toString(StandardCharsets.UTF_8);
+    assertEquals("id,name,price,materials\n1,\"Plate, \"\"2mm\"\"\",15.50,3:10;7:2.5\n2,Panel,1000,\n", csv);
+
+    CsvRecordReader reader = new CsvRecordReader(new StringReader(csv));
+    reader.next();
+    assertEquals(List.of("1", "Plate, \"2mm\"", "15.50", "3:10;7:2.5"), reader.next());
+  }
+
+  @Test
+  void shouldWriteOneJsonObjectPerLine() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (TransferWriter writer = TransferWriter.open(TransferFormat.NDJSON, output, objectMapper, List.of("id", "name", "materials"))) {
+      writer.write(1L, "Robot", new FormulaColumn(List.of(new MaterialAmountDTO(3L, 10.0))));
+      writer.write(2L, null, new FormulaColumn(List.of()));
+    }
+
+    assertEquals("{\"id\":1,\"name\":\"Robot\",\"materials\":[{\"materialId\":3,\"quantity\":10.0}]}\n" +
+            "{\"id\":2,\"name\":null,\"materials\":[]}\n", output.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -24,7 +24,7 @@ public class ProductBuilder {
     return this;
   }
 
-  private ProductBuilder withPrice(BigDecimal price) {
+  public ProductBuilder withPrice(BigDecimal price) {
     this.price = price;
     return this;
   }
@@ -0,0 +1,36 @@
+package com.autoflex.inventory.presentation.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+public class CatalogCacheResourceTest {
+
+  private static final String BASE_PATH = "/api/catalog/cache";
+
+  @BeforeEach
+  void setUp() {
+    RestAssured.port = 8081;
+  }
+
+  @Test
+  void shouldReturn200WithStatisticsOfEveryCatalogRegion() {
+    given()
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(200)
+            .body("statisticsEnabled", is(true))
+            .body("regions.region", hasItems(
+                    "com.autoflex.inventory.domain.RawMaterial",
+                    "com.autoflex.inventory.domain.Product",
+                    "com.autoflex.inventory.domain.ProductMaterial",
+                    "com.autoflex.inventory.domain.Product.materials",
+                    "default-query-results-region"));
+  }
+}
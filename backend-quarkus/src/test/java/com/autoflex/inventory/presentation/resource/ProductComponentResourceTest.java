@@ -0,0 +1,225 @@
+package com.autoflex.inventory.presentation.resource;
+
+import com.autoflex.inventory.application.production.BomSnapshotHolder;
+import com.autoflex.inventory.application.production.ProductionSuggestionCache;
+import com.autoflex.inventory.builders.ProductBuilder;
+import com.autoflex.inventory.builders.RawMaterialBuilder;
+import com.autoflex.inventory.domain.Product;
+import com.autoflex.inventory.domain.ProductComponent;
+import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.presentation.dto.ComponentAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderLineDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderRequestDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class ProductComponentResourceTest {
+
+  private static final String BASE_PATH = "/api/product-components";
+  private static final String CONTENT_TYPE_PROBLEM = "application/problem+json";
+
+  @Inject
+  ProductionSuggestionCache suggestionCache;
+
+  @Inject
+  BomSnapshotHolder snapshotHolder;
+
+  @BeforeEach
+  void setUp() {
+    RestAssured.port = 8081;
+    QuarkusTransaction.requiringNew().run(() -> {
+      Product.deleteAll();
+      RawMaterial.deleteAll();
+    });
+    suggestionCache.invalidate();
+    snapshotHolder.invalidate();
+  }
+
+  @Test
+  void shouldReturn201WhenAddingComponentToProduct() {
+    final Product arm = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withName("Robot Arm").persist());
+    final Product panel = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withName("Control Panel").persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ComponentAmountDTO(panel.id, 2.0))
+            .when()
+            .post(BASE_PATH + "/" + arm.id)
+            .then()
+            .statusCode(201)
+            .body("size()", is(1))
+            .body("[0].componentId", is(panel.id.intValue()))
+            .body("[0].componentName", equalTo("Control Panel"))
+            .body("[0].requiredQuantity", is(2.0f));
+
+    given()
+            .when()
+            .get(BASE_PATH + "/" + arm.id)
+            .then()
+            .statusCode(200)
+            .body("size()", is(1));
+  }
+
+  @Test
+  void shouldReturn400WhenComponentWouldCreateCycle() {
+    final Product arm = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withName("Robot Arm").persist());
+    final Product panel = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withName("Control Panel").persist());
+    final Product board = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withName("Circuit Board").persist());
+
+    given().contentType(ContentType.JSON).body(new ComponentAmountDTO(panel.id, 1.0)).post(BASE_PATH + "/" + arm.id)
+            .then().statusCode(201);
+    given().contentType(ContentType.JSON).body(new ComponentAmountDTO(board.id, 1.0)).post(BASE_PATH + "/" + panel.id)
+            .then().statusCode(201);
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ComponentAmountDTO(arm.id, 1.0))
+            .when()
+            .post(BASE_PATH + "/" + board.id)
+            .then()
+            .statusCode(400)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Bad Request"));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ComponentAmountDTO(arm.id, 1.0))
+            .when()
+            .post(BASE_PATH + "/" + arm.id)
+            .then()
+            .statusCode(400);
+  }
+
+  @Test
+  void shouldReturn404WhenAddingComponentToNonExistentProduct() {
+    final Product panel = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ComponentAmountDTO(panel.id, 1.0))
+            .when()
+            .post(BASE_PATH + "/9999")
+            .then()
+            .statusCode(404)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Resource Not Found"));
+  }
+
+  @Test
+  void shouldExplodeComponentsIntoRawMaterialsForSuggestions() {
+    final Product[] products = QuarkusTransaction.requiringNew().call(() -> {
+      RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(100.0).persist();
+      RawMaterial wiring = RawMaterialBuilder.aRawMaterial().withName("Wiring").withStock(12.0).persist();
+      Product panel = ProductBuilder.aProduct()
+              .withName("Control Panel")
+              .withPrice(BigDecimal.valueOf(10.00))
+              .withMaterial(wiring, 3.0)
+              .persist();
+      Product arm = ProductBuilder.aProduct()
+              .withName("Robot Arm")
+              .withPrice(BigDecimal.valueOf(1000.00))
+              .withMaterial(steel, 10.0)
+              .persist();
+      return new Product[]{arm, panel};
+    });
+
+    given().contentType(ContentType.JSON).body(new ComponentAmountDTO(products[1].id, 2.0)).post(BASE_PATH + "/" + products[0].id)
+            .then().statusCode(201);
+
+    given()
+            .when()
+            .get("/api/production/suggestions")
+            .then()
+            .statusCode(200)
+            .body("size()", is(1))
+            .body("[0].productName", equalTo("Robot Arm"))
+            .body("[0].quantityToProduce", is(2));
+
+    String stream = given()
+            .when()
+            .get("/api/production/suggestions/stream")
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+    assertTrue(stream.contains("\"quantityToProduce\":2"));
+  }
+
+  @Test
+  void shouldLeaveProductsWithAPersistedCycleOutOfSuggestions() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(100.0).persist();
+      ProductBuilder.aProduct().withName("Robot Arm").withPrice(BigDecimal.valueOf(1000.00)).withMaterial(steel, 10.0).persist();
+      Product panel = ProductBuilder.aProduct().withName("Control Panel").withMaterial(steel, 1.0).persist();
+      Product board = ProductBuilder.aProduct().withName("Circuit Board").withMaterial(steel, 1.0).persist();
+      // Written around the service, the way a cycle could only have been stored before the check was serialized
+      component(panel, board).persist();
+      component(board, panel).persist();
+    });
+
+    given()
+            .when()
+            .get("/api/production/suggestions")
+            .then()
+            .statusCode(200)
+            .body("size()", is(1))
+            .body("[0].productName", equalTo("Robot Arm"))
+            .body("[0].quantityToProduce", is(10));
+
+    String stream = given()
+            .when()
+            .get("/api/production/suggestions/stream")
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+    assertTrue(stream.contains("\"quantityToProduce\":10"));
+  }
+
+  @Test
+  void shouldReturn409WhenOrderingAProductWithAPersistedCycle() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(100.0).persist());
+    final Product panel = QuarkusTransaction.requiringNew().call(() -> {
+      Product assembly = ProductBuilder.aProduct().withName("Control Panel").withMaterial(steel, 1.0).persist();
+      Product board = ProductBuilder.aProduct().withName("Circuit Board").withMaterial(steel, 1.0).persist();
+      component(assembly, board).persist();
+      component(board, assembly).persist();
+      return assembly;
+    });
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ProductionOrderRequestDTO(List.of(new ProductionOrderLineDTO(panel.id, 1))))
+            .when()
+            .post("/api/production/orders")
+            .then()
+            .statusCode(409)
+            .contentType(CONTENT_TYPE_PROBLEM);
+
+    assertEquals(100.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).stockQuantity));
+  }
+
+  private static ProductComponent component(Product assembly, Product component) {
+    ProductComponent pc = new ProductComponent();
+    pc.assembly = assembly;
+    pc.component = component;
+    pc.id.assemblyId = assembly.id;
+    pc.id.componentId = component.id;
+    pc.requiredQuantity = 1.0;
+    return pc;
+  }
+}
@@ -1,18 +1,24 @@
 package com.autoflex.inventory.presentation.resource;
 
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
 import com.autoflex.inventory.builders.ProductBuilder;
 import com.autoflex.inventory.builders.RawMaterialBuilder;
 import com.autoflex.inventory.domain.Product;
 import com.autoflex.inventory.domain.RawMaterial;
 import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductMaterialBatchDTO;
 import com.autoflex.inventory.presentation.dto.ProductMaterialUpdateDTO;
 import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import static io.restassured.RestAssured.given;
@@ -24,6 +30,9 @@ public class ProductMaterialResourceTest {
   private static final String BASE_PATH = "/api/product-materials";
   private static final String CONTENT_TYPE_PROBLEM = "application/problem+json";
 
+  @Inject
+  ConcurrentProductWriter concurrentWriter;
+
   @BeforeEach
   void setUp() {
     RestAssured.port = 8081;
@@ -140,4 +149,177 @@ public class ProductMaterialResourceTest {
             .then()
             .statusCode(204);
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldReturn201WhenAddingMaterialsInBatch() {
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").persist());
+
+    ProductMaterialBatchDTO dto = new ProductMaterialBatchDTO(List.of(
+            new MaterialAmountDTO(steel.id, 4.0),
+            new MaterialAmountDTO(copper.id, 2.0)
+    ));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(dto)
+            .when()
+            .post(BASE_PATH + "/" + product.id + "/batch")
+            .then()
+            .statusCode(201)
+            .body("materials.size()", is(2))
+            .body("materials.rawMaterial.id", hasItems(steel.id.intValue(), copper.id.intValue()));
+  }
+
+  @Test
+  void shouldReturn404ListingMissingMaterialsWhenAddingInBatch() {
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().persist());
+
+    ProductMaterialBatchDTO dto = new ProductMaterialBatchDTO(List.of(
+            new MaterialAmountDTO(steel.id, 4.0),
+            new MaterialAmountDTO(99999L, 2.0),
+            new MaterialAmountDTO(99998L, 2.0)
+    ));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(dto)
+            .when()
+            .post(BASE_PATH + "/" + product.id + "/batch")
+            .then()
+            .statusCode(404)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("detail", equalTo("Raw materials not found: [99998, 99999]"));
+
+    given()
+            .when()
+            .get("/api/products/" + product.id)
+            .then()
+            .body("materials.size()", is(0));
+  }
+
+  @Test
+  void shouldReturn400WhenBatchRepeatsAMaterial() {
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().persist());
+
+    ProductMaterialBatchDTO dto = new ProductMaterialBatchDTO(List.of(
+            new MaterialAmountDTO(steel.id, 4.0),
+            new MaterialAmountDTO(steel.id, 2.0)
+    ));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(dto)
+            .when()
+            .post(BASE_PATH + "/" + product.id + "/batch")
+            .then()
+            .statusCode(400)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Bad Request"));
+  }
+
+  @Test
+  void shouldReturn200ListingTheMaterialsOfAProduct() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(40.0).persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() ->
+            ProductBuilder.aProduct().withMaterial(steel, 4.0).withMaterial(copper, 2.0).persist()
+    );
+
+    given()
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .body("size()", is(2))
+            .body("rawMaterial.id", contains(steel.id.intValue(), copper.id.intValue()))
+            .body("[0].rawMaterial.name", equalTo("Steel"))
+            .body("[0].rawMaterial.stockQuantity", is(40.0f))
+            .body("[0].requiredQuantity", is(4.0f));
+  }
+
+  @Test
+  void shouldReturnAnEmptyListForAProductWithoutMaterials() {
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+
+    given()
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .body("size()", is(0));
+  }
+
+  @Test
+  void shouldReturn404ListingTheMaterialsOfNonExistentProduct() {
+    given()
+            .when()
+            .get(BASE_PATH + "/9999")
+            .then()
+            .statusCode(404)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Resource Not Found"));
+  }
+
+  @Test
+  void shouldExportFormulaLinesAsCsv() {
+    final RawMaterial material = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() ->
+            ProductBuilder.aProduct().withMaterial(material, 12.5).persist()
+    );
+
+    given()
+            .accept("text/csv")
+            .when()
+            .get(BASE_PATH + "/export")
+            .then()
+            .statusCode(200)
+            .body(equalTo("productId,materialId,requiredQuantity\n" + product.id + "," + material.id + ",12.5\n"));
+  }
+
+  @Test
+  void shouldReturn409WhenTheProductChangesBeforeTheFormulaChangeCommits() {
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+    final RawMaterial material = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().persist());
+    concurrentWriter.changeBeforeCommit(product.id);
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new MaterialAmountDTO(material.id, 10.0))
+            .when()
+            .post(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(409)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Conflict"));
+
+    given()
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .body("size()", is(0));
+  }
+
+  /** Changes the product in a transaction of its own while the formula change that fired the event is still open. */
+  @ApplicationScoped
+  public static class ConcurrentProductWriter {
+
+    private volatile Long productId;
+
+    void changeBeforeCommit(Long productId) {
+      this.productId = productId;
+    }
+
+    void onCatalogChanged(@Observes CatalogChangedEvent event) {
+      Long id = productId;
+      if (id == null || event.type() != CatalogChangedEvent.Type.FORMULA || !id.equals(event.id())) return;
+
+      productId = null;
+      QuarkusTransaction.requiringNew().run(() -> Product.<Product>findById(id).price = BigDecimal.valueOf(99));
+    }
+  }
+}
@@ -7,6 +7,7 @@ import com.autoflex.inventory.domain.RawMaterial;
 import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
 import com.autoflex.inventory.presentation.dto.ProductRequestDTO;
 import com.autoflex.inventory.presentation.dto.ProductUpdateDTO;
+import com.autoflex.inventory.presentation.dto.StockQuantityDTO;
 import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.RestAssured;
@@ -15,10 +16,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @QuarkusTest
 public class ProductResourceTest {
@@ -88,6 +91,28 @@ public class ProductResourceTest {
             .body("size()", greaterThanOrEqualTo(2));
   }
 
+  @Test
+  void shouldReturn200WithTheFormulaWhenGettingProductById() {
+    final RawMaterial material = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(30.0).persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() ->
+            ProductBuilder.aProduct().withName("Gearbox").withPrice(new BigDecimal("120.50")).withMaterial(material, 3.0).persist()
+    );
+
+    given()
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .body("id", is(product.id.intValue()))
+            .body("name", equalTo("Gearbox"))
+            .body("price", is(120.5f))
+            .body("materials.size()", is(1))
+            .body("materials[0].rawMaterial.id", is(material.id.intValue()))
+            .body("materials[0].rawMaterial.name", equalTo("Steel"))
+            .body("materials[0].rawMaterial.stockQuantity", is(30.0f))
+            .body("materials[0].requiredQuantity", is(3.0f));
+  }
+
   @Test
   void shouldReturn404WhenProductDoesNotExist() {
     given()
@@ -132,4 +157,289 @@ public class ProductResourceTest {
             .then()
             .statusCode(204);
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldPaginateProductsByPriceWithCursor() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").persist();
+      ProductBuilder.aProduct().withName("Robot Arm").withPrice(BigDecimal.valueOf(300.00)).withMaterial(steel, 2.0).persist();
+      ProductBuilder.aProduct().withName("Robot Leg").withPrice(BigDecimal.valueOf(200.00)).withMaterial(steel, 1.0).persist();
+      ProductBuilder.aProduct().withName("Sensor").withPrice(BigDecimal.valueOf(200.00)).persist();
+      ProductBuilder.aProduct().withName("Robot Head").withPrice(BigDecimal.valueOf(100.00)).persist();
+    });
+
+    String cursor = given()
+            .queryParam("limit", 2)
+            .queryParam("name", "robot")
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", notNullValue())
+            .header("Link", containsString("rel=\"next\""))
+            .body("size()", is(2))
+            .body("[0].name", equalTo("Robot Arm"))
+            .body("[0].materials.size()", is(1))
+            .body("[1].name", equalTo("Robot Leg"))
+            .extract()
+            .header("X-Next-Cursor");
+
+    given()
+            .queryParam("limit", 2)
+            .queryParam("name", "robot")
+            .queryParam("cursor", cursor)
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", nullValue())
+            .body("size()", is(1))
+            .body("[0].name", equalTo("Robot Head"));
+  }
+
+  @Test
+  void shouldReturn400WhenPageCursorIsInvalid() {
+    given()
+            .queryParam("cursor", "not a cursor")
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(400)
+            .contentType(CONTENT_TYPE_PROBLEM);
+  }
+
+  @Test
+  void shouldImportProductsFromCsvAndReportMissingMaterials() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").persist());
+
+    String csv = "name,price,materials\n" +
+            "Robot Arm,1500.00," + steel.id + ":10;" + copper.id + ":2.5\n" +
+            "Sensor,99.90,99999:1\n" +
+            "Panel,250.00,\n" +
+            "Gateway,120.00," + copper.id + ":1\n";
+
+    given()
+            .contentType("text/csv")
+            .body(csv)
+            .when()
+            .post(BASE_PATH + "/import")
+            .then()
+            .statusCode(200)
+            .body("rowsRead", is(4))
+            .body("imported", is(2))
+            .body("errors.line", containsInAnyOrder(3, 4))
+            .body("errors.message", hasItem("Raw materials not found: [99999]"));
+
+    given()
+            .queryParam("name", "robot")
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .body("size()", is(1))
+            .body("[0].materials.size()", is(2));
+  }
+
+  @Test
+  void shouldImportProductsFromNdjson() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+
+    String ndjson = "{\"name\":\"Robot Arm\",\"price\":1500.00,\"materials\":[{\"materialId\":" + steel.id + ",\"quantity\":10}]}\n" +
+            "{\"name\":\"Sensor\",\"price\":0,\"materials\":[{\"materialId\":" + steel.id + ",\"quantity\":1}]}\n";
+
+    given()
+            .contentType("application/x-ndjson")
+            .body(ndjson.getBytes(StandardCharsets.UTF_8))
+            .when()
+            .post(BASE_PATH + "/import")
+            .then()
+            .statusCode(200)
+            .body("imported", is(1))
+            .body("rejected", is(1))
+            .body("errors[0].line", is(2))
+            .body("errors[0].message", startsWith("price:"));
+  }
+
+  @Test
+  void shouldExportProductsWithFormulasAsNdjson() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final Product robot = QuarkusTransaction.requiringNew().call(() ->
+            ProductBuilder.aProduct().withName("Robot").withPrice(new BigDecimal("1500.00")).withMaterial(steel, 10.0).persist());
+    final Product panel = QuarkusTransaction.requiringNew().call(() ->
+            ProductBuilder.aProduct().withName("Panel").withPrice(new BigDecimal("250.00")).persist());
+
+    String body = given()
+            .accept("application/x-ndjson")
+            .when()
+            .get(BASE_PATH + "/export")
+            .then()
+            .statusCode(200)
+            .contentType(startsWith("application/x-ndjson"))
+            .extract().asString();
+
+    assertEquals(List.of(
+            "{\"id\":" + robot.id + ",\"name\":\"Robot\",\"price\":1500.00,\"materials\":[{\"materialId\":" + steel.id + ",\"quantity\":10.0}]}",
+            "{\"id\":" + panel.id + ",\"name\":\"Panel\",\"price\":250.00,\"materials\":[]}"
+    ), body.lines().toList());
+  }
+
+  @Test
+  void shouldExportProductsInTheImportCsvShape() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").persist());
+    final Product robot = QuarkusTransaction.requiringNew().call(() ->
+            ProductBuilder.aProduct().withName("Robot").withPrice(new BigDecimal("1500.00"))
+                    .withMaterial(steel, 10.0).withMaterial(copper, 2.5).persist());
+
+    given()
+            .when()
+            .get(BASE_PATH + "/export")
+            .then()
+            .statusCode(200)
+            .contentType(startsWith("text/csv"))
+            .body(equalTo("id,name,price,materials\n" +
+                    robot.id + ",Robot,1500.00," + steel.id + ":10;" + copper.id + ":2.5\n"));
+  }
+
+  @Test
+  void shouldChangeTheProductETagWhenItsFormulaChanges() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withMaterial(steel, 2.0).persist());
+    String etag = given().when().get(BASE_PATH + "/" + product.id).then().statusCode(200).extract().header("ETag");
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(304);
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new MaterialAmountDTO(copper.id, 1.0))
+            .when()
+            .post("/api/product-materials/" + product.id)
+            .then()
+            .statusCode(201);
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)))
+            .body("materials", hasSize(2));
+
+    given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", etag)
+            .body(new ProductUpdateDTO("Renamed", null))
+            .when()
+            .put(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(412)
+            .contentType(CONTENT_TYPE_PROBLEM);
+  }
+
+  @Test
+  void shouldAcceptProductWritesWhenOnlyItsMaterialsStockChanged() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(10.0).persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withMaterial(steel, 2.0).persist());
+    String etag = given().when().get(BASE_PATH + "/" + product.id).then().statusCode(200).extract().header("ETag");
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(1.0))
+            .when()
+            .post("/api/raw-materials/" + steel.id + "/consume")
+            .then()
+            .statusCode(200);
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)));
+
+    given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", etag)
+            .body(new ProductUpdateDTO("Renamed", null))
+            .when()
+            .put(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .body("name", equalTo("Renamed"));
+  }
+
+  @Test
+  void shouldTagTheUpdatedProductAndMatchAnyTagOfAnIfMatchList() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").persist());
+    final Product product = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().withMaterial(copper, 1.0).withMaterial(steel, 2.0).persist());
+    String etag = given().when().get(BASE_PATH + "/" + product.id).then().statusCode(200).extract().header("ETag");
+
+    String updated = given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", "\"999\", " + etag)
+            .body(new ProductUpdateDTO("Renamed", null))
+            .when()
+            .put(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)))
+            .extract().header("ETag");
+
+    given()
+            .header("If-None-Match", updated)
+            .when()
+            .get(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(304);
+
+    given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", "\"999\", " + etag)
+            .body(new ProductUpdateDTO("Renamed again", null))
+            .when()
+            .put(BASE_PATH + "/" + product.id)
+            .then()
+            .statusCode(412)
+            .contentType(CONTENT_TYPE_PROBLEM);
+  }
+
+  @Test
+  void shouldAnswer304OnTheListingUntilTheCatalogChanges() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").persist());
+    String etag = given().when().get(BASE_PATH).then().statusCode(200).extract().header("ETag");
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(304);
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ProductRequestDTO("Industrial Robot", BigDecimal.valueOf(1500.00), List.of(new MaterialAmountDTO(steel.id, 5.0))))
+            .when()
+            .post(BASE_PATH)
+            .then()
+            .statusCode(201);
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)))
+            .header("Last-Modified", notNullValue())
+            .body("name", hasItem("Industrial Robot"));
+  }
+}
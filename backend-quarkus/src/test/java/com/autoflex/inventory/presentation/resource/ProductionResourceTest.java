@@ -1,24 +1,55 @@
 package com.autoflex.inventory.presentation.resource;
 
+import com.autoflex.inventory.application.event.CatalogChangedEvent;
+import com.autoflex.inventory.application.production.BomSnapshotHolder;
+import com.autoflex.inventory.application.production.ProductionSuggestionCache;
 import com.autoflex.inventory.builders.ProductBuilder;
 import com.autoflex.inventory.builders.RawMaterialBuilder;
 import com.autoflex.inventory.domain.Product;
 import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.presentation.dto.ComponentAmountDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderLineDTO;
+import com.autoflex.inventory.presentation.dto.ProductionOrderRequestDTO;
+import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
+import com.autoflex.inventory.presentation.dto.SimulationRequestDTO;
+import com.autoflex.inventory.presentation.dto.SimulationScenarioDTO;
+import com.autoflex.inventory.presentation.dto.StockDeltaDTO;
+import com.autoflex.inventory.presentation.dto.StockQuantityDTO;
 import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 public class ProductionResourceTest {
 
   private static final String BASE_PATH = "/api/production";
 
+  @Inject
+  ProductionSuggestionCache suggestionCache;
+
+  @Inject
+  BomSnapshotHolder snapshotHolder;
+
+  @Inject
+  Event<CatalogChangedEvent> catalogChanged;
+
   @BeforeEach
   void setUp() {
     RestAssured.port = 8081;
@@ -26,6 +57,8 @@ public class ProductionResourceTest {
       Product.deleteAll();
       RawMaterial.deleteAll();
     });
+    suggestionCache.invalidate();
+    snapshotHolder.invalidate();
   }
 
   @Test
@@ -58,4 +91,429 @@ public class ProductionResourceTest {
             .statusCode(200)
             .body("size()", is(0));
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldReturnHigherValueMixWhenStrategyIsOptimal() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist();
+      ProductBuilder.aProduct()
+              .withName("Premium Robot")
+              .withPrice(BigDecimal.valueOf(100.00))
+              .withMaterial(steel, 6.0)
+              .persist();
+      ProductBuilder.aProduct()
+              .withName("Compact Robot")
+              .withPrice(BigDecimal.valueOf(60.00))
+              .withMaterial(steel, 5.0)
+              .persist();
+    });
+
+    given()
+            .queryParam("strategy", "optimal")
+            .when()
+            .get(BASE_PATH + "/suggestions")
+            .then()
+            .statusCode(200)
+            .header("X-Production-Strategy", "OPTIMAL")
+            .header("X-Production-Optimal", "true")
+            .body("size()", is(1))
+            .body("[0].productName", equalTo("Compact Robot"))
+            .body("[0].quantityToProduce", is(2));
+  }
+
+  @Test
+  void shouldReturn400WhenStrategyIsUnknown() {
+    given()
+            .queryParam("strategy", "random")
+            .when()
+            .get(BASE_PATH + "/suggestions")
+            .then()
+            .statusCode(400)
+            .contentType("application/problem+json")
+            .body("title", equalTo("Bad Request"));
+  }
+
+  @Test
+  void shouldServeRepeatedReadsFromCacheUntilStockChanges() {
+    RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> {
+      RawMaterial material = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist();
+      ProductBuilder.aProduct()
+              .withName("Robot")
+              .withMaterial(material, 2.0)
+              .persist();
+      return material;
+    });
+
+    given().when().get(BASE_PATH + "/suggestions").then().statusCode(200).body("[0].quantityToProduce", is(5));
+    long hitsBefore = suggestionCache.stats().hits();
+    long rebuildsBefore = suggestionCache.stats().rebuilds();
+
+    given().when().get(BASE_PATH + "/suggestions").then().statusCode(200).body("[0].quantityToProduce", is(5));
+
+    assertEquals(hitsBefore + 1, suggestionCache.stats().hits());
+    assertEquals(rebuildsBefore, suggestionCache.stats().rebuilds());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new RawMaterialRequestDTO("Steel", 20.0))
+            .when()
+            .put("/api/raw-materials/" + steel.id)
+            .then()
+            .statusCode(200);
+
+    given().when().get(BASE_PATH + "/suggestions").then().statusCode(200).body("[0].quantityToProduce", is(10));
+    assertEquals(rebuildsBefore + 1, suggestionCache.stats().rebuilds());
+  }
+
+  @Test
+  void shouldIgnoreStockChangesThatArriveAfterALaterOne() {
+    RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> {
+      RawMaterial material = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist();
+      ProductBuilder.aProduct().withName("Robot").withMaterial(material, 2.0).persist();
+      return material;
+    });
+    given().when().get(BASE_PATH + "/suggestions").then().statusCode(200).body("[0].quantityToProduce", is(5));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(4.0))
+            .when()
+            .post("/api/raw-materials/" + steel.id + "/consume")
+            .then()
+            .statusCode(200);
+    long version = QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).version);
+
+    // The observer of an earlier commit runs last
+    QuarkusTransaction.requiringNew().run(() -> catalogChanged.fire(CatalogChangedEvent.stock(steel.id, 10.0, version - 1)));
+
+    assertEquals(3, snapshotHolder.current().greedy().units()[0]);
+    given().when().get(BASE_PATH + "/suggestions").then().statusCode(200).body("[0].quantityToProduce", is(3));
+  }
+
+  @Test
+  void shouldReturnCacheStatistics() {
+    given()
+            .when()
+            .get(BASE_PATH + "/suggestions/cache")
+            .then()
+            .statusCode(200)
+            .body("hits", greaterThanOrEqualTo(0))
+            .body("misses", greaterThanOrEqualTo(0));
+  }
+
+  @Test
+  void shouldStreamSuggestionsAsNewlineDelimitedJson() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist();
+      ProductBuilder.aProduct()
+              .withName("Robot")
+              .withPrice(BigDecimal.valueOf(500.00))
+              .withMaterial(steel, 4.0)
+              .persist();
+      ProductBuilder.aProduct()
+              .withName("Sensor")
+              .withPrice(BigDecimal.valueOf(50.00))
+              .withMaterial(steel, 1.0)
+              .persist();
+    });
+
+    String body = given()
+            .when()
+            .get(BASE_PATH + "/suggestions/stream")
+            .then()
+            .statusCode(200)
+            .contentType("application/x-ndjson")
+            .extract()
+            .asString();
+
+    String[] lines = body.trim().split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].contains("\"productName\":\"Robot\""));
+    assertTrue(lines[0].contains("\"quantityToProduce\":2"));
+    assertTrue(lines[1].contains("\"productName\":\"Sensor\""));
+    assertTrue(lines[1].contains("\"quantityToProduce\":2"));
+  }
+
+  @Test
+  void shouldSimulateScenariosWithoutChangingStock() {
+    RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> {
+      RawMaterial material = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist();
+      ProductBuilder.aProduct()
+              .withName("Robot")
+              .withPrice(BigDecimal.valueOf(100.00))
+              .withMaterial(material, 2.0)
+              .persist();
+      return material;
+    });
+
+    SimulationRequestDTO request = new SimulationRequestDTO(List.of(
+            new SimulationScenarioDTO("Baseline", List.of()),
+            new SimulationScenarioDTO("Delivery", List.of(new StockDeltaDTO(steel.id, 10.0))),
+            new SimulationScenarioDTO("Scrap", List.of(new StockDeltaDTO(steel.id, -20.0)))
+    ));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(request)
+            .when()
+            .post(BASE_PATH + "/simulations")
+            .then()
+            .statusCode(200)
+            .body("size()", is(3))
+            .body("[0].name", equalTo("Baseline"))
+            .body("[0].suggestions[0].quantityToProduce", is(5))
+            .body("[1].name", equalTo("Delivery"))
+            .body("[1].suggestions[0].quantityToProduce", is(10))
+            .body("[1].totalValue", is(1000.0f))
+            .body("[2].suggestions.size()", is(0));
+
+    assertEquals(10.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).stockQuantity));
+  }
+
+  @Test
+  void shouldReturn404WhenSimulatingUnknownMaterial() {
+    SimulationRequestDTO request = new SimulationRequestDTO(List.of(
+            new SimulationScenarioDTO("Delivery", List.of(new StockDeltaDTO(9999L, 10.0)))
+    ));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(request)
+            .when()
+            .post(BASE_PATH + "/simulations")
+            .then()
+            .statusCode(404)
+            .body("title", equalTo("Resource Not Found"));
+  }
+
+  @Test
+  void shouldReturnTopSuggestionsByTotalValueWhenLimited() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      RawMaterial steel = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist();
+      RawMaterial plastic = RawMaterialBuilder.aRawMaterial().withName("Plastic").withStock(100.0).persist();
+      RawMaterial copper = RawMaterialBuilder.aRawMaterial().withName("Copper").withStock(3.0).persist();
+      ProductBuilder.aProduct().withName("Robot").withPrice(BigDecimal.valueOf(500.00)).withMaterial(steel, 10.0).persist();
+      ProductBuilder.aProduct().withName("Case").withPrice(BigDecimal.valueOf(20.00)).withMaterial(plastic, 1.0).persist();
+      ProductBuilder.aProduct().withName("Cable").withPrice(BigDecimal.valueOf(10.00)).withMaterial(copper, 1.0).persist();
+    });
+
+    given()
+            .queryParam("limit", 2)
+            .when()
+            .get(BASE_PATH + "/suggestions")
+            .then()
+            .statusCode(200)
+            .body("size()", is(2))
+            .body("[0].productName", equalTo("Case"))
+            .body("[1].productName", equalTo("Robot"));
+
+    given()
+            .queryParam("minTotalValue", 100)
+            .when()
+            .get(BASE_PATH + "/suggestions")
+            .then()
+            .statusCode(200)
+            .body("productName", contains("Case", "Robot"));
+  }
+
+  @Test
+  void shouldReturn400WhenSuggestionLimitIsNotPositive() {
+    given()
+            .queryParam("limit", 0)
+            .when()
+            .get(BASE_PATH + "/suggestions")
+            .then()
+            .statusCode(400)
+            .body("title", equalTo("Validation Error"));
+  }
+
+  @Test
+  void shouldExplainLimitingMaterialAndRankBottlenecks() {
+    RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> {
+      RawMaterial material = RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist();
+      ProductBuilder.aProduct().withName("Robot").withPrice(BigDecimal.valueOf(500.00)).withMaterial(material, 4.0).persist();
+      ProductBuilder.aProduct().withName("Sensor").withPrice(BigDecimal.valueOf(50.00)).withMaterial(material, 3.0).persist();
+      return material;
+    });
+
+    given()
+            .when()
+            .get(BASE_PATH + "/suggestions/detailed")
+            .then()
+            .statusCode(200)
+            .body("size()", is(2))
+            .body("[0].productName", equalTo("Robot"))
+            .body("[0].quantityToProduce", is(2))
+            .body("[0].limitingMaterialId", is(steel.id.intValue()))
+            .body("[0].limitingMaterialRemaining", is(2.0f))
+            .body("[0].shortfallForNextUnit", is(2.0f))
+            .body("[1].productName", equalTo("Sensor"))
+            .body("[1].quantityToProduce", is(0))
+            .body("[1].shortfallForNextUnit", is(1.0f));
+
+    given()
+            .when()
+            .get(BASE_PATH + "/bottlenecks")
+            .then()
+            .statusCode(200)
+            .body("size()", is(1))
+            .body("[0].materialId", is(steel.id.intValue()))
+            .body("[0].limitedProducts", is(2))
+            .body("[0].blockedValue", is(550.0f))
+            .body("[0].totalShortfall", is(3.0f));
+  }
+
+  @Test
+  void shouldPlaceOrderAndConsumeTheFlattenedMaterials() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(100.0).persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").withStock(20.0).persist());
+    final Product robot = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct()
+            .withName("Robot").withPrice(BigDecimal.valueOf(1000)).withMaterial(steel, 10.0).persist());
+    final Product panel = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct()
+            .withName("Panel").withPrice(BigDecimal.valueOf(200)).withMaterial(steel, 1.0).withMaterial(copper, 2.0).persist());
+    given().contentType(ContentType.JSON).body(new ComponentAmountDTO(panel.id, 2.0)).post("/api/product-components/" + robot.id)
+            .then().statusCode(201);
+
+    int orderId = given()
+            .contentType(ContentType.JSON)
+            .body(new ProductionOrderRequestDTO(List.of(
+                    new ProductionOrderLineDTO(robot.id, 2),
+                    new ProductionOrderLineDTO(panel.id, 1),
+                    new ProductionOrderLineDTO(robot.id, 1))))
+            .when()
+            .post(BASE_PATH + "/orders")
+            .then()
+            .statusCode(201)
+            .body("totalValue", is(3200.0f))
+            .body("items.productName", contains("Robot", "Panel"))
+            .body("items.units", contains(3, 1))
+            .body("consumedMaterials.materialId", contains(steel.id.intValue(), copper.id.intValue()))
+            .body("consumedMaterials.quantity", contains(37.0f, 14.0f))
+            .extract().path("id");
+
+    given()
+            .when()
+            .get(BASE_PATH + "/orders/" + orderId)
+            .then()
+            .statusCode(200)
+            .body("totalValue", is(3200.0f))
+            .body("items.productId", contains(robot.id.intValue(), panel.id.intValue()))
+            .body("consumedMaterials.quantity", contains(37.0f, 14.0f));
+
+    assertEquals(63.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).stockQuantity));
+    assertEquals(6.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(copper.id).stockQuantity));
+  }
+
+  @Test
+  void shouldReturn409AndConsumeNothingWhenAnOrderLacksStock() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(100.0).persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").withStock(3.0).persist());
+    final Product robot = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct()
+            .withName("Robot").withMaterial(steel, 10.0).withMaterial(copper, 2.0).persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ProductionOrderRequestDTO(List.of(new ProductionOrderLineDTO(robot.id, 2))))
+            .when()
+            .post(BASE_PATH + "/orders")
+            .then()
+            .statusCode(409)
+            .body("detail", equalTo("Insufficient available stock for raw materials: [" + copper.id + "]"));
+
+    assertEquals(100.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).stockQuantity));
+    assertEquals(3.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(copper.id).stockQuantity));
+  }
+
+  @Test
+  void shouldReturn404WhenAnOrderNamesAMissingProduct() {
+    final Product robot = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ProductionOrderRequestDTO(List.of(new ProductionOrderLineDTO(robot.id, 1), new ProductionOrderLineDTO(999999L, 1))))
+            .when()
+            .post(BASE_PATH + "/orders")
+            .then()
+            .statusCode(404)
+            .body("detail", equalTo("Products not found: [999999]"));
+  }
+
+  @Test
+  void shouldReturn400WhenAnOrderLineHasNoUnits() {
+    final Product robot = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct().persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new ProductionOrderRequestDTO(List.of(new ProductionOrderLineDTO(robot.id, 0))))
+            .when()
+            .post(BASE_PATH + "/orders")
+            .then()
+            .statusCode(400);
+  }
+
+  @Test
+  void shouldNeverOverdrawStockUnderConcurrentOrders() throws Exception {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(30.0).persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").withStock(30.0).persist());
+    final Product robot = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct()
+            .withName("Robot").withMaterial(steel, 1.0).withMaterial(copper, 1.0).persist());
+    final Product panel = QuarkusTransaction.requiringNew().call(() -> ProductBuilder.aProduct()
+            .withName("Panel").withMaterial(copper, 1.0).withMaterial(steel, 1.0).persist());
+
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<Integer>> attempts = new ArrayList<>();
+      for (int i = 0; i < 60; i++) {
+        Long productId = i % 2 == 0 ? robot.id : panel.id;
+        attempts.add(executor.submit(() -> given()
+                .contentType(ContentType.JSON)
+                .body(new ProductionOrderRequestDTO(List.of(new ProductionOrderLineDTO(productId, 1))))
+                .when()
+                .post(BASE_PATH + "/orders")
+                .statusCode()));
+      }
+      int placed = 0;
+      for (Future<Integer> attempt : attempts) {
+        int status = attempt.get();
+        assertTrue(status == 201 || status == 409);
+        if (status == 201) placed++;
+      }
+      assertEquals(30, placed);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(0.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).stockQuantity));
+    assertEquals(0.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(copper.id).stockQuantity));
+  }
+
+  @Test
+  void shouldAnswer304OnSuggestionsUntilStockIsConsumed() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(10.0).persist());
+    QuarkusTransaction.requiringNew().run(() -> ProductBuilder.aProduct().withMaterial(steel, 2.0).persist());
+    String etag = given().when().get(BASE_PATH + "/suggestions").then().statusCode(200).extract().header("ETag");
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH + "/suggestions")
+            .then()
+            .statusCode(304);
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(4.0))
+            .when()
+            .post("/api/raw-materials/" + steel.id + "/consume")
+            .then()
+            .statusCode(200);
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH + "/suggestions")
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)))
+            .body("[0].quantityToProduce", is(3));
+  }
+}
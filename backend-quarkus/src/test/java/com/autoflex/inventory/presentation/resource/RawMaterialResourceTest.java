@@ -3,7 +3,9 @@ package com.autoflex.inventory.presentation.resource;
 import com.autoflex.inventory.builders.RawMaterialBuilder;
 import com.autoflex.inventory.domain.Product;
 import com.autoflex.inventory.domain.RawMaterial;
+import com.autoflex.inventory.presentation.dto.MaterialAmountDTO;
 import com.autoflex.inventory.presentation.dto.RawMaterialRequestDTO;
+import com.autoflex.inventory.presentation.dto.StockQuantityDTO;
 import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.RestAssured;
@@ -11,8 +13,18 @@ import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 public class RawMaterialResourceTest {
@@ -101,6 +113,49 @@ public class RawMaterialResourceTest {
             .body("title", equalTo("Resource Not Found"));
   }
 
+  @Test
+  void shouldReturnTheStockOfARawMaterialAtAPointInTime() {
+    int id = given()
+            .contentType(ContentType.JSON)
+            .body(new RawMaterialRequestDTO("Steel", 10.0))
+            .when()
+            .post(BASE_PATH)
+            .then()
+            .statusCode(201)
+            .extract().path("id");
+    String created = Instant.now().toString();
+    given().contentType(ContentType.JSON).body(new StockQuantityDTO(4.0)).post(BASE_PATH + "/" + id + "/consume")
+            .then().statusCode(200);
+
+    given()
+            .queryParam("at", created)
+            .when()
+            .get(BASE_PATH + "/" + id + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(10.0f))
+            .body("replayedMovements", is(1));
+
+    given()
+            .when()
+            .get(BASE_PATH + "/" + id + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(6.0f))
+            .body("replayedMovements", is(2));
+  }
+
+  @Test
+  void shouldReturn400WhenThePointInTimeIsNotAnInstant() {
+    given()
+            .queryParam("at", "yesterday")
+            .when()
+            .get(BASE_PATH + "/1/stock")
+            .then()
+            .statusCode(400)
+            .contentType(CONTENT_TYPE_PROBLEM);
+  }
+
   @Test
   void shouldReturn200WhenUpdatingRawMaterial() {
     final RawMaterial material = QuarkusTransaction.requiringNew().call(() ->
@@ -132,4 +187,423 @@ public class RawMaterialResourceTest {
             .then()
             .statusCode(204);
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldPaginateRawMaterialsById() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      for (int i = 0; i < 5; i++) {
+        RawMaterialBuilder.aRawMaterial().withName("Material " + i).persist();
+      }
+    });
+
+    String cursor = given()
+            .queryParam("limit", 3)
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(200)
+            .body("size()", is(3))
+            .body("[0].name", equalTo("Material 0"))
+            .extract()
+            .header("X-Next-Cursor");
+
+    given()
+            .queryParam("limit", 3)
+            .queryParam("cursor", cursor)
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", nullValue())
+            .body("size()", is(2))
+            .body("[0].name", equalTo("Material 3"))
+            .body("[1].name", equalTo("Material 4"));
+  }
+
+  @Test
+  void shouldReturn400WhenPageLimitIsTooLarge() {
+    given()
+            .queryParam("limit", 501)
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .statusCode(400)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Validation Error"));
+  }
+
+  @Test
+  void shouldReturn201WhenCreatingRawMaterialsInBulk() {
+    List<RawMaterialRequestDTO> dtos = List.of(
+            new RawMaterialRequestDTO("Steel Plate", 150.0),
+            new RawMaterialRequestDTO("Copper Wiring", 80.0)
+    );
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(dtos)
+            .when()
+            .post(BASE_PATH + "/batch")
+            .then()
+            .statusCode(201)
+            .body("size()", is(2))
+            .body("[0].id", notNullValue())
+            .body("[1].name", equalTo("Copper Wiring"));
+  }
+
+  @Test
+  void shouldReturn400WhenBulkCreationHasAnInvalidEntry() {
+    List<RawMaterialRequestDTO> dtos = List.of(
+            new RawMaterialRequestDTO("Steel Plate", 150.0),
+            new RawMaterialRequestDTO("", -1.0)
+    );
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(dtos)
+            .when()
+            .post(BASE_PATH + "/batch")
+            .then()
+            .statusCode(400)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Validation Error"));
+
+    given()
+            .queryParam("name", "Steel Plate")
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .body("size()", is(0));
+  }
+
+  @Test
+  void shouldImportRawMaterialsFromCsvAndReportInvalidRows() {
+    String csv = """
+            name,stockQuantity
+            Steel Plate,150
+            "Copper, Wiring",80.5
+            ,10
+            Aluminum,abc
+            """;
+
+    given()
+            .contentType("text/csv")
+            .body(csv)
+            .when()
+            .post(BASE_PATH + "/import")
+            .then()
+            .statusCode(200)
+            .body("rowsRead", is(4))
+            .body("imported", is(2))
+            .body("rejected", is(2))
+            .body("errors.line", contains(4, 5))
+            .body("errors[1].message", equalTo("Invalid number 'abc' in column stockQuantity"));
+
+    given()
+            .queryParam("name", "copper")
+            .when()
+            .get(BASE_PATH)
+            .then()
+            .body("size()", is(1))
+            .body("[0].name", equalTo("Copper, Wiring"))
+            .body("[0].stockQuantity", is(80.5f));
+  }
+
+  @Test
+  void shouldImportRawMaterialsFromNdjson() {
+    String ndjson = """
+            {"name":"Steel Plate","stockQuantity":150}
+            {"name":"Copper","stockQuantity":-1}
+            not json
+            {"name":"Aluminum","stockQuantity":30}
+            """;
+
+    given()
+            .contentType("application/x-ndjson")
+            .body(ndjson.getBytes(StandardCharsets.UTF_8))
+            .when()
+            .post(BASE_PATH + "/import")
+            .then()
+            .statusCode(200)
+            .body("rowsRead", is(4))
+            .body("imported", is(2))
+            .body("errors.line", contains(2, 3))
+            .body("errors[0].message", startsWith("stockQuantity:"));
+  }
+
+  @Test
+  void shouldReturn400WhenImportCsvLacksRequiredColumns() {
+    given()
+            .contentType("text/csv")
+            .body("name\nSteel\n")
+            .when()
+            .post(BASE_PATH + "/import")
+            .then()
+            .statusCode(400)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("detail", equalTo("Missing CSV columns: [stockQuantity]"));
+  }
+
+  @Test
+  void shouldReturn200WhenConsumingAvailableStock() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(10.0).persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(2.5))
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/consume")
+            .then()
+            .statusCode(200)
+            .body("materialId", is(steel.id.intValue()))
+            .body("stockQuantity", is(7.5f))
+            .body("availableQuantity", is(7.5f));
+  }
+
+  @Test
+  void shouldReturn409AndKeepStockWhenConsumingMoreThanAvailable() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(10.0).persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(10.5))
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/consume")
+            .then()
+            .statusCode(409)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Conflict"))
+            .body("detail", equalTo("Insufficient available stock for raw materials: [" + steel.id + "]"));
+
+    assertEquals(10.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).stockQuantity));
+  }
+
+  @Test
+  void shouldKeepReservedStockForConsumptionFromTheReservation() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(10.0).persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(8.0))
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/reserve")
+            .then()
+            .statusCode(200)
+            .body("reservedQuantity", is(8.0f))
+            .body("availableQuantity", is(2.0f));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(3.0))
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/consume")
+            .then()
+            .statusCode(409);
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(3.0))
+            .queryParam("fromReservation", true)
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/consume")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", is(7.0f))
+            .body("reservedQuantity", is(5.0f));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(5.0))
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/release")
+            .then()
+            .statusCode(200)
+            .body("reservedQuantity", is(0.0f))
+            .body("availableQuantity", is(7.0f));
+  }
+
+  @Test
+  void shouldSubtractReservationsWithoutFloatingPointDrift() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(0.3).persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(0.1))
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/reserve")
+            .then()
+            .statusCode(200)
+            .body(containsString("\"availableQuantity\":0.2"));
+  }
+
+  @Test
+  void shouldConsumeEveryLineOfABatchOrNone() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(10.0).persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").withStock(1.0).persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(List.of(new MaterialAmountDTO(steel.id, 4.0), new MaterialAmountDTO(copper.id, 2.0)))
+            .when()
+            .post(BASE_PATH + "/consume")
+            .then()
+            .statusCode(409)
+            .body("detail", equalTo("Insufficient available stock for raw materials: [" + copper.id + "]"));
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(List.of(new MaterialAmountDTO(steel.id, 4.0), new MaterialAmountDTO(copper.id, 0.5), new MaterialAmountDTO(steel.id, 1.0)))
+            .when()
+            .post(BASE_PATH + "/consume")
+            .then()
+            .statusCode(200)
+            .body("materialId", contains(steel.id.intValue(), copper.id.intValue()))
+            .body("stockQuantity", contains(5.0f, 0.5f));
+  }
+
+  @Test
+  void shouldNameOnlyTheShortMaterialsOfARejectedBatch() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Steel").withStock(0.3).persist());
+    final RawMaterial copper = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withName("Copper").withStock(1.0).persist());
+
+    // 0.1 + 0.2 exceeds 0.3 in binary floating point, but not in hundredths
+    given()
+            .contentType(ContentType.JSON)
+            .body(List.of(new MaterialAmountDTO(steel.id, 0.1), new MaterialAmountDTO(steel.id, 0.2), new MaterialAmountDTO(copper.id, 2.0)))
+            .when()
+            .post(BASE_PATH + "/consume")
+            .then()
+            .statusCode(409)
+            .body("detail", equalTo("Insufficient available stock for raw materials: [" + copper.id + "]"));
+  }
+
+  @Test
+  void shouldReturn404WhenABatchNamesAMissingMaterial() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(10.0).persist());
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(List.of(new MaterialAmountDTO(steel.id, 1.0), new MaterialAmountDTO(999999L, 1.0)))
+            .when()
+            .post(BASE_PATH + "/reserve")
+            .then()
+            .statusCode(404)
+            .body("detail", equalTo("Raw materials not found: [999999]"));
+  }
+
+  @Test
+  void shouldNeverOverdrawStockUnderConcurrentConsumers() throws Exception {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(50.0).persist());
+
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<Integer>> attempts = new ArrayList<>();
+      for (int i = 0; i < 80; i++) {
+        attempts.add(executor.submit(() -> given()
+                .contentType(ContentType.JSON)
+                .body(new StockQuantityDTO(1.0))
+                .when()
+                .post(BASE_PATH + "/" + steel.id + "/consume")
+                .statusCode()));
+      }
+      int consumed = 0;
+      for (Future<Integer> attempt : attempts) {
+        int status = attempt.get();
+        assertTrue(status == 200 || status == 409);
+        if (status == 200) consumed++;
+      }
+      assertEquals(50, consumed);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(0.0, QuarkusTransaction.requiringNew().call(() -> RawMaterial.<RawMaterial>findById(steel.id).stockQuantity));
+  }
+
+  @Test
+  void shouldExportRawMaterialsAsCsv() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() ->
+            RawMaterialBuilder.aRawMaterial().withName("Steel, 2mm").withStock(150.5).persist());
+
+    given()
+            .accept("text/csv")
+            .when()
+            .get(BASE_PATH + "/export")
+            .then()
+            .statusCode(200)
+            .contentType(startsWith("text/csv"))
+            .header("Content-Disposition", equalTo("attachment; filename=\"raw-materials.csv\""))
+            .body(equalTo("id,name,stockQuantity\n" + steel.id + ",\"Steel, 2mm\",150.5\n"));
+  }
+
+  @Test
+  void shouldAnswer304WhenTheRawMaterialIsUnchanged() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().withStock(10.0).persist());
+    String etag = given().when().get(BASE_PATH + "/" + steel.id).then().statusCode(200).extract().header("ETag");
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH + "/" + steel.id)
+            .then()
+            .statusCode(304);
+
+    given()
+            .contentType(ContentType.JSON)
+            .body(new StockQuantityDTO(1.0))
+            .when()
+            .post(BASE_PATH + "/" + steel.id + "/consume")
+            .then()
+            .statusCode(200);
+
+    given()
+            .header("If-None-Match", etag)
+            .when()
+            .get(BASE_PATH + "/" + steel.id)
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)))
+            .body("stockQuantity", is(9.0f));
+  }
+
+  @Test
+  void shouldReturn412WhenUpdatingRawMaterialWithAStaleETag() {
+    final RawMaterial steel = QuarkusTransaction.requiringNew().call(() -> RawMaterialBuilder.aRawMaterial().persist());
+    String etag = given().when().get(BASE_PATH + "/" + steel.id).then().statusCode(200).extract().header("ETag");
+
+    String updated = given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", etag)
+            .body(new RawMaterialRequestDTO("Stainless Steel", 20.0))
+            .when()
+            .put(BASE_PATH + "/" + steel.id)
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)))
+            .extract().header("ETag");
+
+    given()
+            .contentType(ContentType.JSON)
+            .header("If-Match", etag)
+            .body(new RawMaterialRequestDTO("Carbon Steel", 30.0))
+            .when()
+            .put(BASE_PATH + "/" + steel.id)
+            .then()
+            .statusCode(412)
+            .contentType(CONTENT_TYPE_PROBLEM)
+            .body("title", equalTo("Precondition Failed"));
+
+    given()
+            .header("If-Match", etag)
+            .when()
+            .delete(BASE_PATH + "/" + steel.id)
+            .then()
+            .statusCode(412);
+
+    given()
+            .header("If-Match", updated)
+            .when()
+            .delete(BASE_PATH + "/" + steel.id)
+            .then()
+            .statusCode(204);
+  }
+}